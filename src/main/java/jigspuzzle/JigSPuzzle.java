@@ -1,5 +1,7 @@
 package jigspuzzle;
 
+import java.io.File;
+import java.io.IOException;
 import jigspuzzle.controller.*;
 import jigspuzzle.view.IPuzzleWindow;
 import jigspuzzle.view.ISoundPlayer;
@@ -23,10 +25,15 @@ public class JigSPuzzle {
     }
 
     /**
-     * @param args the command line arguments
+     * @param args the command line arguments. The first argument can be a
+     * file, to which the puzzle is saved automatically. If the file exists,
+     * the puzzle is recovered from it.
      */
     public static void main(String[] args) {
         getInstance().startGame();
+        if (args.length > 0) {
+            getInstance().startAutosave(new File(args[0]));
+        }
     }
 
     /**
@@ -97,6 +104,24 @@ public class JigSPuzzle {
      */
     public void setPuzzleWindow(IPuzzleWindow puzzleWindow) {
         this.puzzleWindow = puzzleWindow;
+        SettingsController.getInstance().invalidatePuzzleareaGeometry();
+    }
+
+    /**
+     * Recovers the puzzle from the given file, if it exists, and saves the
+     * puzzle automatically to it.
+     *
+     * @param file
+     */
+    private void startAutosave(File file) {
+        if (file.exists()) {
+            try {
+                PuzzleController.getInstance().recoverPuzzle(file);
+            } catch (IOException ex) {
+                // start with an empty puzzlearea
+            }
+        }
+        PuzzleController.getInstance().startAutosave(file);
     }
 
     /**
@@ -2,35 +2,60 @@ package jigspuzzle.controller;
 
 import java.awt.Dimension;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.List;
-import javax.imageio.ImageIO;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import jigspuzzle.JigSPuzzle;
+import jigspuzzle.model.ModelThread;
 import jigspuzzle.model.puzzle.ConnectorPosition;
 import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.model.puzzle.PuzzleJournal;
+import jigspuzzle.model.puzzle.PuzzleSnapshot;
 import jigspuzzle.model.puzzle.Puzzlepiece;
 import jigspuzzle.model.puzzle.PuzzlepieceConnection;
 import jigspuzzle.model.puzzle.PuzzlepieceGroup;
 import jigspuzzle.util.ImageUtil;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.xml.sax.SAXException;
 
 /**
  * A controller for all kinds of buissniss with a puzzle. Either the puzzle
  * itself or parts of the puzzle like puzzlepiecs.
  *
+ * The current puzzle is only changed on the model thread. The methods of this
+ * controller can be called from any thread: a new puzzle is prepared on the
+ * calling thread and handed over to the model thread, when it is shown.
+ *
+ * @see ModelThread
  * @author RoseTec
  */
 public class PuzzleController extends AbstractController {
@@ -41,6 +66,35 @@ public class PuzzleController extends AbstractController {
      */
     public static final String PUZZLE_SAVES_ENDING = "jig";
 
+    /**
+     * The first bytes of a file with a saved puzzle. Files that do not start
+     * with these bytes are loaded as XML-files, in which older versions saved
+     * the puzzles.
+     */
+    private static final int PUZZLE_SAVES_MAGIC_NUMBER = 0x4A494753; // "JIGS"
+
+    /**
+     * The version of the format of saved puzzles. It is increased, when the
+     * format changes.
+     */
+    private static final int PUZZLE_SAVES_VERSION = 3;
+
+    /**
+     * The number of records, that the journal of the autosave can have. If it
+     * has more, a new snapshot is saved and the journal starts again.
+     */
+    private static final int AUTOSAVE_MAX_JOURNAL_RECORDS = 10000;
+
+    /**
+     * The thread, on which the snapshots of the autosave are written.
+     */
+    private static final ExecutorService AUTOSAVE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Autosave");
+
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private static PuzzleController instance;
 
     public static PuzzleController getInstance() {
@@ -58,7 +112,25 @@ public class PuzzleController extends AbstractController {
         instance = null;
     }
 
-    private Puzzle puzzle;
+    private volatile Puzzle puzzle;
+
+    /**
+     * The file, to which the puzzle is saved automatically. It is
+     * <code>null</code>, if the puzzle is not saved automatically.
+     */
+    private File autosaveFile;
+
+    /**
+     * The journal, in which the changes of the puzzle since the last autosave
+     * are recorded.
+     */
+    private PuzzleJournal autosaveJournal;
+
+    /**
+     * The snapshot of the autosave, that was written last in the background.
+     * It is <code>null</code>, if no snapshot was written.
+     */
+    private Future<?> autosaveCompaction;
 
     private PuzzleController() {
     }
@@ -83,10 +155,12 @@ public class PuzzleController extends AbstractController {
      * @deprecated only use in tests
      */
     public void setPuzzle(Puzzle puzzle) {
-        this.puzzle = puzzle;
+        ModelThread.invokeAndWait(() -> {
+            this.puzzle = puzzle;
 
-        // show puzzle on view
-        JigSPuzzle.getInstance().getPuzzleWindow().setNewPuzzle(puzzle);
+            // show puzzle on view
+            JigSPuzzle.getInstance().getPuzzleWindow().setNewPuzzle(puzzle);
+        });
     }
 
     /**
@@ -153,33 +227,211 @@ public class PuzzleController extends AbstractController {
      * @see #savePuzzle(java.io.File)
      */
     public void loadPuzzle(File file) throws IOException {
-        // load puzzle
-        Puzzle newPuzzle;
+        setLoadedPuzzle(readPuzzle(file, null));
+    }
 
-        try {
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(file);
+    /**
+     * Recovers a puzzle, that was saved automatically to the given file. The
+     * changes of the puzzle, that were recorded after it was saved, are
+     * replayed on it.
+     *
+     * @param file
+     * @throws IOException
+     * @see #startAutosave(java.io.File)
+     */
+    public void recoverPuzzle(File file) throws IOException {
+        CRC32 checksum = new CRC32();
+        Puzzle newPuzzle = readPuzzle(file, checksum);
 
-            doc.getDocumentElement().normalize();
+        ModelThread.invokeAndWait(() -> {
+            if (puzzle != null) {
+                puzzle.destroy();
+            }
+            // the size of the puzzlepieces depends on the current puzzle, so it
+            // has to be set before the merges are replayed
+            puzzle = newPuzzle;
+            try {
+                PuzzleJournal.replay(newPuzzle, getAutosaveJournalFile(file), checksum.getValue());
+            } finally {
+                // show puzzle on view
+                JigSPuzzle.getInstance().getPuzzleWindow().setNewPuzzle(newPuzzle);
+                reportImageError(newPuzzle);
+
+                // save the recovered puzzle automatically
+                compactAutosave();
+            }
+        });
+    }
 
-            Node settingsNode = doc.getElementsByTagName("jigspuzzle").item(0);
-            if (settingsNode == null) {
-                throw new IOException("File is no puzzle");
+    /**
+     * Reads a puzzle from the given file. If the file does not contain a
+     * puzzle, a IOExeption is thrown.
+     *
+     * A saved puzzle is read into memory at once and the puzzle is returned,
+     * before its image is decoded, so that it can be shown at once. The image
+     * is decoded in the background. The file is not mapped into memory, so it
+     * is closed, when this returns, and it can be overwritten at once. The
+     * puzzle keeps the read image only, until it is decoded.
+     *
+     * @param file
+     * @param checksum The checksum, that is updated with all bytes of the file.
+     * Can be <code>null</code>, if no checksum is needed.
+     * @return
+     * @throws IOException
+     * @see Puzzle#createFromBuffer(java.nio.ByteBuffer, int)
+     */
+    private Puzzle readPuzzle(File file, CRC32 checksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size >= 8) {
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("File is too large");
+                }
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException();
+                    }
+                }
+                buffer.flip();
+
+                if (buffer.getInt(0) == PUZZLE_SAVES_MAGIC_NUMBER) {
+                    int version = buffer.getInt(4);
+
+                    if (version < 1 || version > PUZZLE_SAVES_VERSION) {
+                        throw new IOException("Unknown version of the puzzle file");
+                    }
+                    if (checksum != null) {
+                        updateChecksum(checksum, buffer.duplicate());
+                    }
+                    buffer.position(8);
+                    return Puzzle.createFromBuffer(buffer, version);
+                }
             }
+        } catch (EOFException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new IOException("File is no puzzle", ex);
+        }
 
-            newPuzzle = Puzzle.createFromFile((Element) settingsNode);
-        } catch (SAXException | ParserConfigurationException ex) {
-            throw new IOException(ex);
+        // no saved puzzle, so it can only be a xml-file
+        InputStream fileIn = new FileInputStream(file);
+
+        if (checksum != null) {
+            fileIn = new CheckedInputStream(fileIn, checksum);
         }
+        try (InputStream in = new BufferedInputStream(fileIn)) {
+            Puzzle newPuzzle = loadPuzzleFromXml(in);
 
-        if (puzzle != null) {
-            puzzle.destroy();
+            // read the rest of the file for the checksum
+            byte[] buffer = new byte[4096];
+            while (in.read(buffer) != -1) {
+            }
+            return newPuzzle;
+        } catch (EOFException ex) {
+            throw new IOException("File is no puzzle", ex);
         }
-        puzzle = newPuzzle;
+    }
 
-        // show puzzle on view
-        JigSPuzzle.getInstance().getPuzzleWindow().setNewPuzzle(newPuzzle);
+    /**
+     * Updates the given checksum with the remaining bytes of the given buffer.
+     *
+     * @param checksum
+     * @param buffer
+     */
+    private void updateChecksum(CRC32 checksum, ByteBuffer buffer) {
+        byte[] bytes = new byte[8192];
+
+        while (buffer.hasRemaining()) {
+            int length = Math.min(bytes.length, buffer.remaining());
+
+            buffer.get(bytes, 0, length);
+            checksum.update(bytes, 0, length);
+        }
+    }
+
+    /**
+     * Replaces the current puzzle with the given puzzle, that was loaded from a
+     * file, and shows it.
+     *
+     * @param newPuzzle
+     */
+    private void setLoadedPuzzle(Puzzle newPuzzle) {
+        ModelThread.invokeAndWait(() -> {
+            if (puzzle != null) {
+                puzzle.destroy();
+            }
+            puzzle = newPuzzle;
+
+            // show puzzle on view
+            JigSPuzzle.getInstance().getPuzzleWindow().setNewPuzzle(newPuzzle);
+        });
+        reportImageError(newPuzzle);
+
+        // save the new puzzle automatically
+        ModelThread.invokeAndWait(this::compactAutosave);
+    }
+
+    /**
+     * Shows an error to the user, if the image of the given puzzle, that was
+     * loaded from a file, cannot be decoded and the puzzle is still the
+     * current puzzle. Such a puzzle is not saved, so the file is kept.
+     *
+     * @param loadedPuzzle
+     */
+    private void reportImageError(Puzzle loadedPuzzle) {
+        loadedPuzzle.whenImageDecoded((IOException error) -> {
+            if (error == null) {
+                return;
+            }
+            ModelThread.invokeLater(() -> {
+                if (puzzle == loadedPuzzle) {
+                    JigSPuzzle.getInstance().getPuzzleWindow().displayFatalError(
+                            "The image of the puzzle could not be loaded completely: " + error.getMessage());
+                }
+            });
+        });
+    }
+
+    /**
+     * Loads a puzzle from the given stream, that contains a puzzle in the XML
+     * format of older versions.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     * @see #savePuzzleAsXml(java.io.File)
+     */
+    private Puzzle loadPuzzleFromXml(InputStream in) throws IOException {
+        XMLStreamReader reader = null;
+
+        try {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            reader = factory.createXMLStreamReader(in);
+
+            if (reader.nextTag() != XMLStreamReader.START_ELEMENT
+                    || !"jigspuzzle".equals(reader.getLocalName())) {
+                throw new IOException("File is no puzzle");
+            }
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamReader.START_ELEMENT
+                        && "puzzle".equals(reader.getLocalName())) {
+                    return Puzzle.createFromXml(reader);
+                }
+            }
+            throw new IOException("File is no puzzle");
+        } catch (XMLStreamException ex) {
+            throw new IOException(ex);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ex) {
+                }
+            }
+        }
     }
 
     /**
@@ -190,6 +442,20 @@ public class PuzzleController extends AbstractController {
      * opened.
      */
     public void newPuzzle(Image img) throws IOException {
+        newPuzzle(img, new Random().nextLong());
+    }
+
+    /**
+     * Creates a new puzzle that can be solved by the user. All random numbers
+     * for the puzzle are generated from the given seed, so the same image and
+     * seed give the same puzzle.
+     *
+     * @param img The image for that a puzzle should be created.
+     * @param seed
+     * @throws IOException Will be thrown, when the given images cannot be
+     * opened.
+     */
+    public void newPuzzle(Image img, long seed) throws IOException {
         // load the image to the puzzle
         BufferedImage image = ImageUtil.transformImageToBufferedImage(img);
 
@@ -198,7 +464,7 @@ public class PuzzleController extends AbstractController {
         int columnCount;
         int numberOfPieces = SettingsController.getInstance().getPuzzlepieceNumber();
 
-        int puzzleareaSize = image.getWidth() * image.getHeight();
+        long puzzleareaSize = (long) image.getWidth() * image.getHeight();
         int puzzlepieceHeight = (int) (Math.sqrt(puzzleareaSize / (double) numberOfPieces));
         int puzzlepieceWidth = puzzlepieceHeight;
 
@@ -210,16 +476,23 @@ public class PuzzleController extends AbstractController {
                 image.getHeight(), image.getWidth(),
                 rowCount, columnCount);
 
-        if (puzzle != null) {
-            puzzle.destroy();
-        }
-        puzzle = new Puzzle(image, rowCount, columnCount, pieceSize.width, pieceSize.height);
+        Puzzle newPuzzle = new Puzzle(image, rowCount, columnCount, pieceSize.width, pieceSize.height, seed);
 
-        // show puzzle on view
-        JigSPuzzle.getInstance().getPuzzleWindow().setNewPuzzle(puzzle);
+        ModelThread.invokeAndWait(() -> {
+            if (puzzle != null) {
+                puzzle.destroy();
+            }
+            puzzle = newPuzzle;
+
+            // show puzzle on view
+            JigSPuzzle.getInstance().getPuzzleWindow().setNewPuzzle(newPuzzle);
+        });
 
         // shuffle puzzle over the puzzlewindow
         shufflePuzzlepieces();
+
+        // save the new puzzle automatically
+        ModelThread.invokeAndWait(this::compactAutosave);
     }
 
     /**
@@ -230,7 +503,18 @@ public class PuzzleController extends AbstractController {
      * opened.
      */
     public void newPuzzle(File imageFile) throws IOException {
-        newPuzzle(ImageIO.read(imageFile));
+        // a puzzle that is decreased automatically is never shown bigger than
+        // the puzzlearea, so a huge image does not need to be read completely
+        Dimension maxSize = null;
+
+        if (SettingsController.getInstance().getDecreasePuzzleAutomatically()) {
+            maxSize = new Dimension();
+            for (Rectangle screen : JigSPuzzle.getInstance().getPuzzleWindow().getPuzzleareaBounds()) {
+                maxSize.width = Math.max(maxSize.width, screen.width);
+                maxSize.height = Math.max(maxSize.height, screen.height);
+            }
+        }
+        newPuzzle(ImageUtil.readImage(imageFile, maxSize));
     }
 
     /**
@@ -240,10 +524,13 @@ public class PuzzleController extends AbstractController {
      * @throws java.io.IOException
      */
     public void restartPuzzle() throws IOException {
-        if (puzzle == null) {
+        Puzzle oldPuzzle = puzzle;
+
+        if (oldPuzzle == null) {
             return;
         }
-        newPuzzle(puzzle.getImage());
+        oldPuzzle.waitForCompleteImage();
+        newPuzzle(oldPuzzle.getImage());
     }
 
     /**
@@ -255,33 +542,272 @@ public class PuzzleController extends AbstractController {
      * @see #loadPuzzle(java.io.File)
      */
     public void savePuzzle(File file) throws IOException {
+        savePuzzle(file, createPuzzleSnapshot(), null);
+    }
+
+    /**
+     * Saves the given snapshot of the puzzle to the given file. If the file
+     * exists, it will be overwritten.
+     *
+     * The snapshot can be saved on another thread than the one, on which the
+     * user changes the puzzle.
+     *
+     * @param file
+     * @param snapshot
+     * @param progress Gets the percentage of the saved puzzle from time to
+     * time. Can be <code>null</code>.
+     * @throws java.io.IOException
+     * @see #createPuzzleSnapshot()
+     * @see #loadPuzzle(java.io.File)
+     */
+    public void savePuzzle(File file, PuzzleSnapshot snapshot, IntConsumer progress) throws IOException {
+        writePuzzle(file, snapshot, false, progress);
+    }
+
+    /**
+     * Creates a snapshot of the current puzzle, that can be saved, while the
+     * puzzle is changed.
+     *
+     * @return
+     * @throws IOException If the image of the puzzle could not be loaded
+     * completely.
+     * @see #savePuzzle(java.io.File, jigspuzzle.model.puzzle.PuzzleSnapshot,
+     * java.util.function.IntConsumer)
+     */
+    public PuzzleSnapshot createPuzzleSnapshot() throws IOException {
+        return ModelThread.invokeAndGet(() -> puzzle.createSnapshot());
+    }
+
+    /**
+     * Writes the given snapshot of the puzzle to the given file. If the file
+     * exists, it will be overwritten.
+     *
+     * The snapshot is written to a temporary file next to the file first, that
+     * replaces the file, when it is written completely. So the file is never
+     * left half written and it is not written, while it may still be read.
+     *
+     * @param file
+     * @param snapshot
+     * @param sync If set, it is waited until the file is written to the disk.
+     * @param progress Can be <code>null</code>.
+     * @return The checksum of the written file.
+     * @throws IOException
+     */
+    private long writePuzzle(File file, PuzzleSnapshot snapshot, boolean sync, IntConsumer progress) throws IOException {
+        CRC32 checksum = new CRC32();
+        File tmpFile = new File(file.getPath() + ".tmp");
+
+        try (FileOutputStream fileOut = new FileOutputStream(tmpFile)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(fileOut, checksum)));
+
+            out.writeInt(PUZZLE_SAVES_MAGIC_NUMBER);
+            out.writeInt(PUZZLE_SAVES_VERSION);
+            snapshot.saveToStream(out, progress);
+            out.flush();
+            if (sync) {
+                fileOut.getFD().sync();
+            }
+        }
         try {
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.newDocument();
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return checksum.getValue();
+    }
 
-            Element root = doc.createElement("jigspuzzle");
-            doc.appendChild(root);
-            puzzle.saveToFile(doc, root);
+    /**
+     * Starts saving the puzzle automatically to the given file. The puzzle is
+     * saved completely as a snapshot only from time to time. In between, only
+     * the moves and merges of puzzlepiece groups are recorded in a journal
+     * next to the file.
+     *
+     * @param file
+     * @see #recoverPuzzle(java.io.File)
+     * @see #stopAutosave()
+     */
+    public void startAutosave(File file) {
+        ModelThread.invokeAndWait(() -> {
+            // the new snapshot replaces the snapshot, that is not written yet
+            closeAutosaveJournal();
+            autosaveFile = file;
+            compactAutosave();
+        });
+    }
 
-            // write the content into xml file
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            DOMSource source = new DOMSource(doc);
-            StreamResult result = new StreamResult(file);
+    /**
+     * Stops saving the puzzle automatically.
+     *
+     * A snapshot, that is written in the background, is written completely
+     * and its journal is closed afterwards on the thread of the autosave. If
+     * this is called from another thread than the model thread, it waits for
+     * it. The model thread never waits for it.
+     *
+     * @see #startAutosave(java.io.File)
+     */
+    public void stopAutosave() {
+        Future<?> closing = ModelThread.invokeAndGet(() -> {
+            PuzzleJournal journal = autosaveJournal;
+
+            autosaveJournal = null;
+            autosaveFile = null;
+            autosaveCompaction = null;
+            if (journal == null) {
+                return null;
+            }
+            return AUTOSAVE_EXECUTOR.submit(() -> {
+                try {
+                    journal.close();
+                } catch (IOException ex) {
+                }
+            });
+        });
+
+        if (closing != null && !ModelThread.isModelThread()) {
+            try {
+                closing.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+            }
+        }
+    }
 
-            transformer.transform(source, result);
-        } catch (ParserConfigurationException | TransformerException ex) {
-            throw new IOException(ex);
+    /**
+     * Closes the journal of the autosave, if there is one.
+     */
+    private void closeAutosaveJournal() {
+        if (autosaveJournal != null) {
+            try {
+                autosaveJournal.close();
+            } catch (IOException ex) {
+            }
+            autosaveJournal = null;
         }
     }
 
+    /**
+     * Saves a new snapshot of the puzzle to the file of the autosave and
+     * starts a new journal for it.
+     *
+     * The snapshot is taken immediately, but it is written in the background.
+     * Until then, the new journal is recorded in a temporary file and the old
+     * snapshot and its journal stay valid. When the snapshot is written
+     * completely, it replaces the old snapshot and then the new journal
+     * replaces the old journal.
+     *
+     * The snapshots are written one after another on the thread of the
+     * autosave, so the model thread never waits for them. A snapshot, that is
+     * not written yet, when the next one is taken, is skipped: its journal is
+     * closed, when it is replaced.
+     *
+     * If the puzzle cannot be saved, it is tried again, when the next
+     * puzzlepiece group snaps. If the image of the puzzle could not be loaded
+     * completely, the puzzle is not saved, so the old snapshot stays.
+     */
+    private void compactAutosave() {
+        if (autosaveFile == null || puzzle == null) {
+            return;
+        }
+        File file = autosaveFile;
+        PuzzleSnapshot snapshot;
+        PuzzleJournal journal;
+
+        try {
+            snapshot = puzzle.createSnapshot();
+        } catch (IOException ex) {
+            return;
+        }
+        closeAutosaveJournal();
+        try {
+            journal = PuzzleJournal.create(puzzle, new File(getAutosaveJournalFile(file).getPath() + ".tmp"), 0);
+        } catch (IOException ex) {
+            return;
+        }
+        autosaveJournal = journal;
+        autosaveCompaction = AUTOSAVE_EXECUTOR.submit(() -> {
+            if (journal.hasFailed()) {
+                // a newer snapshot was taken or the autosave was stopped
+                return;
+            }
+            try {
+                long checksum = writePuzzle(file, snapshot, true, null);
+
+                journal.moveTo(getAutosaveJournalFile(file), checksum);
+            } catch (IOException ex) {
+                // the journal has failed, so the autosave is tried again
+                try {
+                    journal.close();
+                } catch (IOException ex2) {
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the file of the journal for the given file of an autosave.
+     *
+     * @param file
+     * @return
+     */
+    private File getAutosaveJournalFile(File file) {
+        return new File(file.getPath() + ".journal");
+    }
+
+    /**
+     * Checks, whether a new snapshot of the puzzle has to be saved, because
+     * its journal became too long or is not usable.
+     *
+     * @return
+     */
+    private boolean isAutosaveCompactionNeeded() {
+        return autosaveFile != null && puzzle != null
+                && (autosaveCompaction == null || autosaveCompaction.isDone())
+                && (autosaveJournal == null
+                || autosaveJournal.hasFailed()
+                || autosaveJournal.getRecordCount() >= AUTOSAVE_MAX_JOURNAL_RECORDS);
+    }
+
+    /**
+     * Saves the puzzle to the given file in the XML format of older versions.
+     * If the file exists, it will be overwritten.
+     *
+     * @param file
+     * @throws java.io.IOException
+     * @see #loadPuzzle(java.io.File)
+     */
+    void savePuzzleAsXml(File file) throws IOException {
+        Puzzle currentPuzzle = puzzle;
+
+        // do not wait for the image on the model thread
+        if (currentPuzzle != null) {
+            currentPuzzle.waitForCompleteImage();
+        }
+        ModelThread.invokeAndWait(() -> {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+
+                writer.writeStartDocument("UTF-8", "1.0");
+                writer.writeStartElement("jigspuzzle");
+                puzzle.saveToXml(writer);
+                writer.writeEndElement();
+                writer.writeEndDocument();
+                writer.close();
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        });
+    }
+
     /**
      * Shuffles the puzzle on the puzzlearea, so that all puzzlepieces get new
      * coordinates.
      */
     public void shufflePuzzlepieces() {
-        if (puzzle != null) {
-            puzzle.shufflePuzzlepieces(10);
+        Puzzle currentPuzzle = puzzle;
+
+        if (currentPuzzle != null) {
+            currentPuzzle.shufflePuzzlepieces();
         }
     }
 
@@ -290,78 +816,59 @@ public class PuzzleController extends AbstractController {
      * groups. In this case one group is deleten and the puzzlepieces inside the
      * deleted group are added to are other group.
      *
+     * Only the puzzlepieces on the other side of an open connection of the
+     * given group can snap with it. So only these puzzlepieces are tested and
+     * not all groups of the puzzle.
+     *
      * @param puzzlepieceGroup The group to test, whether it can snap with other
      * groups.
      */
     public void trySnapPuzzlepieceGroup(PuzzlepieceGroup puzzlepieceGroup) {
-        for (PuzzlepieceGroup otherGroup : puzzle.getPuzzlepieceGroups()) {
-            if (!otherGroup.equals(puzzlepieceGroup)) {
-                // test if the groups can snap and therefore have a puzzlepiece-
-                // connection of a piece in each group that can connect the two
-                // pieces and therefore the two groups
-                PuzzlepieceConnection connection = null;
-
-                for (ConnectorPosition direction : ConnectorPosition.values()) {
-                    List<PuzzlepieceConnection> connectionsThisGroup = puzzlepieceGroup.getPuzzlepieceConnectionsInPosition(direction);
-                    List<PuzzlepieceConnection> connectionsOtherGroup = otherGroup.getPuzzlepieceConnectionsInPosition(direction.getOpposite());
-
-                    for (PuzzlepieceConnection thisConnection : connectionsThisGroup) {
-                        for (PuzzlepieceConnection otherConnection : connectionsOtherGroup) {
-                            if (thisConnection != null && thisConnection == otherConnection) {
-                                connection = thisConnection;
-                                break;
-                            }
-                        }
-                        if (connection != null) {
-                            break;
-                        }
-                    }
-                    if (connection != null) {
-                        break;
-                    }
-                }
+        PuzzlepieceGroup snappedGroup;
+
+        do {
+            snappedGroup = trySnapPuzzlepieceGroupOnce(puzzlepieceGroup);
+            if (snappedGroup != null) {
+                // the open connections of the merged group have changed, so
+                // test again with the merged group
+                puzzlepieceGroup = snappedGroup;
+            }
+        } while (snappedGroup != null);
 
-                if (connection == null) {
-                    continue;
-                }
+        // the journal of the autosave is only compacted after the user has
+        // released a puzzlepiece group
+        if (isAutosaveCompactionNeeded()) {
+            compactAutosave();
+        }
+    }
 
+    /**
+     * Tries to let the given puzzlepiece group snap with one other puzzlepiece
+     * group.
+     *
+     * @param puzzlepieceGroup
+     * @return The group in that the given group was merged or
+     * <code>null</code>, if the group did not snap with another group.
+     * @see #trySnapPuzzlepieceGroup(jigspuzzle.model.puzzle.PuzzlepieceGroup)
+     */
+    private PuzzlepieceGroup trySnapPuzzlepieceGroupOnce(PuzzlepieceGroup puzzlepieceGroup) {
+        for (ConnectorPosition direction : ConnectorPosition.values()) {
+            for (PuzzlepieceConnection connection : puzzlepieceGroup.getPuzzlepieceConnectionsInPosition(direction)) {
                 // get the pieces of the connection
                 Puzzlepiece piece1;
                 Puzzlepiece otherPuzzlepiece;
 
                 if (puzzlepieceGroup.isPuzzlepieceContained(connection.getInPuzzlepiece())) {
                     piece1 = connection.getInPuzzlepiece();
-                } else if (puzzlepieceGroup.isPuzzlepieceContained(connection.getOutPuzzlepiece())) {
-                    piece1 = connection.getOutPuzzlepiece();
-                } else {
-                    // this case shuld not happen
-                    System.out.println("Exectued a line that should not be exectuted in:\n"
-                            + this.getClass().toString() + "::trySnapPuzzlepieceGroup() - create 'piece1'");
-                    continue;
-                }
-                if (otherGroup.isPuzzlepieceContained(connection.getInPuzzlepiece())) {
-                    otherPuzzlepiece = connection.getInPuzzlepiece();
-                } else if (otherGroup.isPuzzlepieceContained(connection.getOutPuzzlepiece())) {
                     otherPuzzlepiece = connection.getOutPuzzlepiece();
                 } else {
-                    // this case shuld not happen
-                    System.out.println("Exectued a line that should not be exectuted in:\n"
-                            + this.getClass().toString() + "::trySnapPuzzlepieceGroup() - create 'otherPuzzlepiece'");
-                    continue;
+                    piece1 = connection.getOutPuzzlepiece();
+                    otherPuzzlepiece = connection.getInPuzzlepiece();
                 }
 
-                // get the direction in that piece1 'should see' otherPuzzlepiece
-                ConnectorPosition direction = null;
+                PuzzlepieceGroup otherGroup = otherPuzzlepiece.getPuzzlepieceGroup();
 
-                for (ConnectorPosition positionToTest : ConnectorPosition.values()) {
-                    if (connection == piece1.getConnectorForDirection(positionToTest)) {
-                        direction = positionToTest;
-                        break;
-                    }
-                }
-                if (direction == null) {
-                    System.out.println("Exectued a line that should not be exectuted in:\n"
-                            + this.getClass().toString() + "::trySnapPuzzlepieceGroup() - create 'direction'");
+                if (otherGroup == null || otherGroup == puzzlepieceGroup) {
                     continue;
                 }
 
@@ -373,15 +880,16 @@ public class PuzzleController extends AbstractController {
                 // if all is ok, delete one and add the pieces to the other
                 otherGroup.addFromPuzzlepieceGroup(puzzlepieceGroup, connection);
                 puzzlepieceGroup.destroy();
-                puzzlepieceGroup = otherGroup;
 
                 // play sound for snapping the puzzlepieces
                 JigSPuzzle.getInstance().getSoundPlayer().playSnapPuzzlepieces();
 
                 // bring the other group to the front
                 JigSPuzzle.getInstance().getPuzzleWindow().bringToFront(otherGroup);
+                return otherGroup;
             }
         }
+        return null;
     }
 
     /**
@@ -394,8 +902,9 @@ public class PuzzleController extends AbstractController {
      * @return
      */
     private boolean isPuzzlepieceNearOtherPieceInDirection(Puzzlepiece piece1, Puzzlepiece otherPiece, ConnectorPosition direction) {
-        int pieceWidth = SettingsController.getInstance().getPuzzlepieceSize().width;
-        int pieceHeight = SettingsController.getInstance().getPuzzlepieceSize().height;
+        PuzzleareaGeometry geometry = SettingsController.getInstance().getPuzzleareaGeometry();
+        int pieceWidth = geometry.getPuzzlepieceWidth();
+        int pieceHeight = geometry.getPuzzlepieceHeight();
 
         // calculate the tolerance offset
         int possibleGroupOffsetX = pieceWidth * SettingsController.getInstance().getPuzzlepieceSnapDistancePercent() / 100;
@@ -0,0 +1,167 @@
+package jigspuzzle.controller;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+
+/**
+ * The sizes of the current puzzle on the puzzlearea: the size of one
+ * puzzlepiece, of its connectors and the screens, on which the puzzle is shown.
+ *
+ * The geometry cannot be changed, so it can be kept while painting, hit testing
+ * or dragging. When the settings, the puzzle or the size of the puzzlearea
+ * change, a new geometry is created. The puzzle and the settings, for which it
+ * was created, are stored in it, so that observers of the settings get the new
+ * geometry at once.
+ *
+ * @author RoseTec
+ * @see SettingsController#getPuzzleareaGeometry()
+ */
+public final class PuzzleareaGeometry {
+
+    private final int puzzleHeight;
+
+    private final int puzzleWidth;
+
+    private final int puzzleRows;
+
+    private final int puzzleColumns;
+
+    private final double usedSizeOfPuzzlearea;
+
+    private final boolean decreasePuzzleAutomatically;
+
+    private final boolean enlargePuzzleAutomatically;
+
+    private final int puzzlepieceWidth;
+
+    private final int puzzlepieceHeight;
+
+    private final Rectangle[] screens;
+
+    private final Area screenArea;
+
+    PuzzleareaGeometry(int puzzleHeight, int puzzleWidth, int puzzleRows, int puzzleColumns,
+            double usedSizeOfPuzzlearea, boolean decreasePuzzleAutomatically, boolean enlargePuzzleAutomatically,
+            Dimension puzzlepieceSize, Rectangle[] screens) {
+        this.puzzleHeight = puzzleHeight;
+        this.puzzleWidth = puzzleWidth;
+        this.puzzleRows = puzzleRows;
+        this.puzzleColumns = puzzleColumns;
+        this.usedSizeOfPuzzlearea = usedSizeOfPuzzlearea;
+        this.decreasePuzzleAutomatically = decreasePuzzleAutomatically;
+        this.enlargePuzzleAutomatically = enlargePuzzleAutomatically;
+        this.puzzlepieceWidth = puzzlepieceSize.width;
+        this.puzzlepieceHeight = puzzlepieceSize.height;
+        this.screens = new Rectangle[screens.length];
+        this.screenArea = new Area();
+        for (int i = 0; i < screens.length; i++) {
+            this.screens[i] = new Rectangle(screens[i]);
+            screenArea.add(new Area(screens[i]));
+        }
+
+        // the area caches its bounds, so do it now and only read it afterwards
+        screenArea.getBounds2D();
+    }
+
+    /**
+     * Checks, whether this geometry was created for a puzzle with the given
+     * size.
+     *
+     * @param puzzleHeight
+     * @param puzzleWidth
+     * @param puzzleRows
+     * @param puzzleColumns
+     * @return
+     */
+    boolean isForPuzzle(int puzzleHeight, int puzzleWidth, int puzzleRows, int puzzleColumns) {
+        return this.puzzleHeight == puzzleHeight && this.puzzleWidth == puzzleWidth
+                && this.puzzleRows == puzzleRows && this.puzzleColumns == puzzleColumns;
+    }
+
+    /**
+     * Checks, whether this geometry was created with the given settings for
+     * the size of the puzzle.
+     *
+     * @param usedSizeOfPuzzlearea
+     * @param decreasePuzzleAutomatically
+     * @param enlargePuzzleAutomatically
+     * @return
+     */
+    boolean isForSettings(double usedSizeOfPuzzlearea, boolean decreasePuzzleAutomatically, boolean enlargePuzzleAutomatically) {
+        return this.usedSizeOfPuzzlearea == usedSizeOfPuzzlearea
+                && this.decreasePuzzleAutomatically == decreasePuzzleAutomatically
+                && this.enlargePuzzleAutomatically == enlargePuzzleAutomatically;
+    }
+
+    /**
+     * Gets the height of one puzzlepiece that is shown to the user.
+     *
+     * @return
+     */
+    public int getPuzzlepieceHeight() {
+        return puzzlepieceHeight;
+    }
+
+    /**
+     * Gets the width of one puzzlepiece that is shown to the user.
+     *
+     * @return
+     */
+    public int getPuzzlepieceWidth() {
+        return puzzlepieceWidth;
+    }
+
+    /**
+     * Gets the height and width of one puzzlepiece that is shown to the user.
+     *
+     * @return
+     */
+    public Dimension getPuzzlepieceSize() {
+        return new Dimension(puzzlepieceWidth, puzzlepieceHeight);
+    }
+
+    /**
+     * Gets the size of the connectors on the left and right of a puzzlepiece.
+     *
+     * @return
+     */
+    public int getConnectorSizeLeftRight() {
+        return puzzlepieceWidth / 2;
+    }
+
+    /**
+     * Gets the size of the connectors on the top and buttom of a puzzlepiece.
+     *
+     * @return
+     */
+    public int getConnectorSizeTopButtom() {
+        return puzzlepieceHeight / 2;
+    }
+
+    /**
+     * Gets the rectangles of the screens, on which the puzzle is shown.
+     *
+     * @return A copy of the rectangles.
+     */
+    public Rectangle[] getScreens() {
+        Rectangle[] ret = new Rectangle[screens.length];
+
+        for (int i = 0; i < screens.length; i++) {
+            ret[i] = new Rectangle(screens[i]);
+        }
+        return ret;
+    }
+
+    /**
+     * Checks, whether the given rectangle lays completely on the screens, on
+     * which the puzzle is shown.
+     *
+     * @param rect
+     * @return
+     */
+    public boolean isOnScreens(Rectangle rect) {
+        return screenArea.contains(rect);
+    }
+
+}
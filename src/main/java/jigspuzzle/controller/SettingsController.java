@@ -66,6 +66,12 @@ public class SettingsController extends AbstractController {
      */
     private PuzzleareaSettings puzzleareaSettings;
 
+    /**
+     * The sizes of the current puzzle on the puzzlearea. It is created, when it
+     * is needed the next time.
+     */
+    private volatile PuzzleareaGeometry puzzleareaGeometry;
+
     /**
      * The filename for storing the settings in a file.
      */
@@ -342,13 +348,78 @@ public class SettingsController extends AbstractController {
      * puzzlepiece is considered in here.
      *
      * @return
+     * @see #getPuzzleareaGeometry()
      */
     public Dimension getPuzzlepieceSize() {
-        return getPuzzlepieceSize(
-                PuzzleController.getInstance().getPuzzleHeight(),
-                PuzzleController.getInstance().getPuzzleWidth(),
-                PuzzleController.getInstance().getPuzzlepieceRowCount(),
-                PuzzleController.getInstance().getPuzzlepieceColumnCount());
+        return getPuzzleareaGeometry().getPuzzlepieceSize();
+    }
+
+    /**
+     * Gets the sizes of the current puzzle on the puzzlearea. The geometry is
+     * only calculated again, when the puzzle or the settings for its size have
+     * changed or after <code>invalidatePuzzleareaGeometry()</code>.
+     *
+     * @return
+     * @see #invalidatePuzzleareaGeometry()
+     */
+    public PuzzleareaGeometry getPuzzleareaGeometry() {
+        PuzzleareaGeometry geometry = puzzleareaGeometry;
+
+        if (isCurrentPuzzleareaGeometry(geometry)) {
+            return geometry;
+        }
+        synchronized (this) {
+            geometry = puzzleareaGeometry;
+            if (!isCurrentPuzzleareaGeometry(geometry)) {
+                int puzzleHeight = PuzzleController.getInstance().getPuzzleHeight();
+                int puzzleWidth = PuzzleController.getInstance().getPuzzleWidth();
+                int puzzleRows = PuzzleController.getInstance().getPuzzlepieceRowCount();
+                int puzzleColumns = PuzzleController.getInstance().getPuzzlepieceColumnCount();
+                double usedSize = puzzleareaSettings.getUsedSizeOfPuzzlearea();
+                boolean decrease = puzzleareaSettings.getDecreasePuzzleAutomatically();
+                boolean enlarge = puzzleareaSettings.getEnlargePuzzleAutomatically();
+                Rectangle[] screens = JigSPuzzle.getInstance().getPuzzleWindow().getPuzzleareaBounds();
+
+                geometry = new PuzzleareaGeometry(puzzleHeight, puzzleWidth, puzzleRows, puzzleColumns,
+                        usedSize, decrease, enlarge,
+                        getPuzzlepieceSize(puzzleHeight, puzzleWidth, puzzleRows, puzzleColumns, screens), screens);
+                puzzleareaGeometry = geometry;
+            }
+            return geometry;
+        }
+    }
+
+    /**
+     * Checks, whether the given geometry was created for the current puzzle
+     * and the current settings. The settings are checked here, because their
+     * observers are notified within the change and need the new geometry
+     * already.
+     *
+     * @param geometry
+     * @return
+     */
+    private boolean isCurrentPuzzleareaGeometry(PuzzleareaGeometry geometry) {
+        return geometry != null
+                && geometry.isForPuzzle(
+                        PuzzleController.getInstance().getPuzzleHeight(),
+                        PuzzleController.getInstance().getPuzzleWidth(),
+                        PuzzleController.getInstance().getPuzzlepieceRowCount(),
+                        PuzzleController.getInstance().getPuzzlepieceColumnCount())
+                && geometry.isForSettings(
+                        puzzleareaSettings.getUsedSizeOfPuzzlearea(),
+                        puzzleareaSettings.getDecreasePuzzleAutomatically(),
+                        puzzleareaSettings.getEnlargePuzzleAutomatically());
+    }
+
+    /**
+     * Forgets the sizes of the current puzzle on the puzzlearea, so that they
+     * are calculated again, e.g. because the puzzlearea was resized or the
+     * fullscreen was triggered.
+     *
+     * @see #getPuzzleareaGeometry()
+     */
+    public synchronized void invalidatePuzzleareaGeometry() {
+        puzzleareaGeometry = null;
     }
 
     /**
@@ -364,9 +435,20 @@ public class SettingsController extends AbstractController {
      * @see #getPuzzlepieceSize(int, int)
      */
     Dimension getPuzzlepieceSize(double puzzleHeight, double puzzleWidth, int puzzleRows, int puzzleColumns) {
+        return getPuzzlepieceSize(puzzleHeight, puzzleWidth, puzzleRows, puzzleColumns,
+                JigSPuzzle.getInstance().getPuzzleWindow().getPuzzleareaBounds());
+    }
+
+    /**
+     * Returns the height and width that one puzzlepiece should have on the
+     * given screens.
+     *
+     * @see #getPuzzlepieceSize(double, double, int, int)
+     */
+    private Dimension getPuzzlepieceSize(double puzzleHeight, double puzzleWidth, int puzzleRows, int puzzleColumns, Rectangle[] screens) {
         int maxHeight = 0, maxWidth = 0;
 
-        for (Rectangle screen : JigSPuzzle.getInstance().getPuzzleWindow().getPuzzleareaBounds()) {
+        for (Rectangle screen : screens) {
             int puzzleareaWidth = screen.width;
             int puzzleareaHeight = screen.height;
             // resize puzzlearea depending on setting for size of puzzlearea
@@ -403,7 +485,7 @@ public class SettingsController extends AbstractController {
             }
 
             // set this size to the current, if it is greater than the current
-            if (resizedHeight * resizedWidth > maxHeight * maxWidth) {
+            if ((long) resizedHeight * resizedWidth > (long) maxHeight * maxWidth) {
                 maxHeight = resizedHeight;
                 maxWidth = resizedWidth;
             }
@@ -427,6 +509,22 @@ public class SettingsController extends AbstractController {
         return puzzleSettings.getSnapDistancePercent();
     }
 
+    /**
+     * @see PuzzleareaSettings#getPuzzlepieceImageCacheSize()
+     * @return
+     */
+    public int getPuzzlepieceImageCacheSize() {
+        return puzzleareaSettings.getPuzzlepieceImageCacheSize();
+    }
+
+    /**
+     * @see PuzzleareaSettings#setPuzzlepieceImageCacheSize(int)
+     * @param size
+     */
+    public void setPuzzlepieceImageCacheSize(int size) {
+        puzzleareaSettings.setPuzzlepieceImageCacheSize(size);
+    }
+
     /**
      * @see PuzzleareaSettings#getShowPuzzlePreview()
      * @return
@@ -443,6 +541,38 @@ public class SettingsController extends AbstractController {
         puzzleareaSettings.setShowPuzzlePreview(showPuzzlePreview);
     }
 
+    /**
+     * @see PuzzleareaSettings#getShuffleDuration()
+     * @return
+     */
+    public int getShuffleDuration() {
+        return puzzleareaSettings.getShuffleDuration();
+    }
+
+    /**
+     * @see PuzzleareaSettings#setShuffleDuration(int)
+     * @param shuffleDuration
+     */
+    public void setShuffleDuration(int shuffleDuration) {
+        puzzleareaSettings.setShuffleDuration(shuffleDuration);
+    }
+
+    /**
+     * @see PuzzleareaSettings#getUseSingleCanvas()
+     * @return
+     */
+    public boolean getUseSingleCanvas() {
+        return puzzleareaSettings.getUseSingleCanvas();
+    }
+
+    /**
+     * @see PuzzleareaSettings#setUseSingleCanvas(boolean)
+     * @param useSingleCanvas
+     */
+    public void setUseSingleCanvas(boolean useSingleCanvas) {
+        puzzleareaSettings.setUseSingleCanvas(useSingleCanvas);
+    }
+
     /**
      * Sets the number in percent, how much of the puzzleare should be used for
      * puzzeling. A number of 0.5 for instance means, that only 50% of the
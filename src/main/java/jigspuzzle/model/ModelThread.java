@@ -0,0 +1,130 @@
+package jigspuzzle.model;
+
+import java.awt.EventQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The thread, on which the current puzzle is changed. There is only one thread,
+ * that changes the puzzle: the event dispatch thread. So the views can read the
+ * puzzle while painting and hit testing without any locks.
+ *
+ * Work in the background, e.g. reading a puzzle from a file or decoding its
+ * image, only prepares a puzzle, that is not shown yet. The changes of the
+ * current puzzle are handed over to the model thread.
+ *
+ * @author RoseTec
+ */
+public final class ModelThread {
+
+    /**
+     * The time of one frame in milliseconds, when the screen is refreshed 60
+     * times per second. Changes, that happen often, are handed over to the
+     * model thread or to the views at most once per frame.
+     */
+    public static final int FRAME_DELAY = 1000 / 60;
+
+    /**
+     * A change of the model, that can throw an exception.
+     *
+     * @param <E>
+     */
+    public interface Change<E extends Exception> {
+
+        void run() throws E;
+
+    }
+
+    /**
+     * A query of the model, that can throw an exception.
+     *
+     * @param <T>
+     * @param <E>
+     */
+    public interface Query<T, E extends Exception> {
+
+        T get() throws E;
+
+    }
+
+    private ModelThread() {
+    }
+
+    /**
+     * Checks, whether the current thread is the model thread.
+     *
+     * @return
+     */
+    public static boolean isModelThread() {
+        return EventQueue.isDispatchThread();
+    }
+
+    /**
+     * Runs the given change on the model thread and waits, until it is done.
+     * If the current thread is the model thread, the change is run directly.
+     *
+     * @param <E>
+     * @param change
+     * @throws E The exception, that the change has thrown.
+     */
+    public static <E extends Exception> void invokeAndWait(Change<E> change) throws E {
+        invokeAndGet(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the given query on the model thread and waits for its result. If
+     * the current thread is the model thread, the query is run directly.
+     *
+     * @param <T>
+     * @param <E>
+     * @param query
+     * @return The result of the query.
+     * @throws E The exception, that the query has thrown.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, E extends Exception> T invokeAndGet(Query<T, E> query) throws E {
+        if (isModelThread()) {
+            return query.get();
+        }
+        FutureTask<T> task = new FutureTask<>(query::get);
+        boolean interrupted = false;
+
+        EventQueue.invokeLater(task);
+        try {
+            // the change is done in any case, so wait for it also when interrupted
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs the given change on the model thread later and returns at once.
+     *
+     * @param change
+     */
+    public static void invokeLater(Runnable change) {
+        EventQueue.invokeLater(change);
+    }
+
+}
@@ -0,0 +1,39 @@
+package jigspuzzle.model;
+
+import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * An implementation of this class can be saved to a XML-file and loaded again
+ * from it, without holding the whole file in memory. The XML is the same as
+ * the one of <code>Savable</code>.
+ *
+ * @author RoseTec
+ * @see Savable
+ */
+public interface XmlStreamSavable {
+
+    /**
+     * Loads again the content from the given reader. The reader has to be on
+     * the start element of this content and is on the corresponding end
+     * element afterwards.
+     *
+     * @param reader
+     * @throws java.io.IOException
+     * @throws javax.xml.stream.XMLStreamException
+     */
+    public void loadFromXml(XMLStreamReader reader) throws IOException, XMLStreamException;
+
+    /**
+     * Saves the current content to the given writer. The content is written
+     * as one element.
+     *
+     * @param writer
+     * @throws java.io.IOException
+     * @throws javax.xml.stream.XMLStreamException
+     */
+    public void saveToXml(XMLStreamWriter writer) throws IOException, XMLStreamException;
+
+}
@@ -5,10 +5,19 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import javax.imageio.ImageIO;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import jigspuzzle.model.Savable;
+import jigspuzzle.model.XmlStreamSavable;
 import jigspuzzle.util.ImageUtil;
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64InputStream;
+import org.apache.commons.codec.binary.Base64OutputStream;
 import org.w3c.dom.Element;
 
 /**
@@ -16,7 +25,28 @@ import org.w3c.dom.Element;
  *
  * @author RoseTec
  */
-public abstract class AbstractPuzzlesModel implements Savable {
+public abstract class AbstractPuzzlesModel implements Savable, XmlStreamSavable {
+
+    /**
+     * Skips the element, on whose start element the given reader is. The
+     * reader is on the corresponding end element afterwards.
+     *
+     * @param reader
+     * @throws XMLStreamException
+     */
+    static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+
+        while (depth > 0) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
 
     private static int LAST_ID_COUNT = 0;
 
@@ -77,6 +107,72 @@ public abstract class AbstractPuzzlesModel implements Savable {
         return image;
     }
 
+    /**
+     * Loads the ID of this model from the start element, on which the given
+     * reader is.
+     *
+     * @param reader
+     * @see XmlStreamSavable
+     * @see #saveIdToXml(javax.xml.stream.XMLStreamWriter)
+     */
+    protected void loadIdFromXml(XMLStreamReader reader) {
+        this.setId(Integer.parseInt(reader.getAttributeValue(null, "id")));
+    }
+
+    /**
+     * Loads an image from the element, on whose start element the given
+     * reader is. The image is decoded while it is read, so the encoded text is
+     * never in memory as a whole.
+     *
+     * @param reader
+     * @return
+     * @throws java.io.IOException
+     * @throws javax.xml.stream.XMLStreamException
+     * @see XmlStreamSavable
+     * @see #saveImageToXml(javax.xml.stream.XMLStreamWriter, java.awt.Image)
+     */
+    protected Image loadImageFromXml(XMLStreamReader reader) throws IOException, XMLStreamException {
+        XmlTextInputStream text = new XmlTextInputStream(reader);
+        BufferedImage image = ImageIO.read(new Base64InputStream(text));
+
+        text.skipToEnd();
+        if (image == null) {
+            throw new IOException("Invalid image");
+        }
+        return image;
+    }
+
+    /**
+     * Saves the ID of this model as attribute to the current start element of
+     * the given writer.
+     *
+     * @param writer
+     * @throws javax.xml.stream.XMLStreamException
+     * @see XmlStreamSavable
+     * @see #loadIdFromXml(javax.xml.stream.XMLStreamReader)
+     */
+    protected void saveIdToXml(XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeAttribute("id", String.valueOf(this.getId()));
+    }
+
+    /**
+     * Saves an image as text to the given writer. The image is encoded while
+     * it is written, so the encoded text is never in memory as a whole.
+     *
+     * <b>Important:</b> This method will NOT create a element for the image.
+     *
+     * @param writer
+     * @param img
+     * @throws java.io.IOException
+     * @see XmlStreamSavable
+     * @see #loadImageFromXml(javax.xml.stream.XMLStreamReader)
+     */
+    protected void saveImageToXml(XMLStreamWriter writer, Image img) throws IOException {
+        try (OutputStream out = new Base64OutputStream(new XmlTextOutputStream(writer), true, 0, null)) {
+            ImageIO.write(ImageUtil.transformImageToBufferedImage(img), "png", out);
+        }
+    }
+
     /**
      * Saves the ID of this model to the given element.
      *
@@ -114,4 +210,130 @@ public abstract class AbstractPuzzlesModel implements Savable {
         }
     }
 
+    /**
+     * An input stream, that reads the text of the current element of a XML
+     * reader. The stream ends at the end element.
+     */
+    private static class XmlTextInputStream extends InputStream {
+
+        private final XMLStreamReader reader;
+
+        private char[] text;
+
+        private int start;
+
+        private int end;
+
+        private boolean finished;
+
+        XmlTextInputStream(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return text[start++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, end - start);
+
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) text[start + i];
+            }
+            start += n;
+            return n;
+        }
+
+        /**
+         * Moves the reader to the end element, without reading the rest of
+         * the text.
+         */
+        void skipToEnd() throws IOException {
+            start = end;
+            while (fill()) {
+                start = end;
+            }
+        }
+
+        /**
+         * Gets the next text from the reader, if all text is read.
+         *
+         * @return <code>false</code>, if the end element is reached.
+         */
+        private boolean fill() throws IOException {
+            try {
+                while (start >= end) {
+                    if (finished) {
+                        return false;
+                    }
+                    switch (reader.next()) {
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            text = reader.getTextCharacters();
+                            start = reader.getTextStart();
+                            end = start + reader.getTextLength();
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            finished = true;
+                            break;
+                        case XMLStreamConstants.COMMENT:
+                        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                            break;
+                        default:
+                            throw new IOException("Unexpected content in text");
+                    }
+                }
+                return true;
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+    }
+
+    /**
+     * An output stream, that writes all bytes as characters to a XML writer.
+     * It is meant for ASCII-text only.
+     */
+    private static class XmlTextOutputStream extends OutputStream {
+
+        private final XMLStreamWriter writer;
+
+        XmlTextOutputStream(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            char[] text = new char[len];
+
+            for (int i = 0; i < len; i++) {
+                text[i] = (char) (b[off + i] & 0xFF);
+            }
+            try {
+                writer.writeCharacters(text, 0, len);
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+    }
+
 }
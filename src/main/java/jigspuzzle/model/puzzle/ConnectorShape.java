@@ -2,6 +2,9 @@ package jigspuzzle.model.puzzle;
 
 import java.awt.geom.Path2D;
 import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -32,6 +35,24 @@ public abstract class ConnectorShape extends AbstractPuzzlesModel {
         return ConnectorShapeFactory.getInstance().getConnectorShapeWithId(id);
     }
 
+    /**
+     * Creates a puzzle from the given reader
+     *
+     * @param reader
+     * @return
+     * @throws XMLStreamException
+     * @see #createFromFile(org.w3c.dom.Element)
+     */
+    public static ConnectorShape createFromXml(XMLStreamReader reader) throws XMLStreamException {
+        if (!"shape".equals(reader.getLocalName())) {
+            skipElement(reader);
+            return null;
+        }
+        int id = Integer.parseInt(reader.getAttributeValue(null, "id"));
+        skipElement(reader);
+        return ConnectorShapeFactory.getInstance().getConnectorShapeWithId(id);
+    }
+
     /**
      * The shape that this connectorShae has. It is created in the subclasses.
      */
@@ -110,6 +131,33 @@ public abstract class ConnectorShape extends AbstractPuzzlesModel {
         throw new UnsupportedOperationException("ConnectorShaps cannot be loaded. Use #createFromFile() for this.");
     }
 
+    /**
+     * Implementation of the abstract method of the superclass.
+     *
+     * <b>This method is not supported.</b> Use <code>createFromXml()</code>
+     * instead.
+     *
+     * @param reader
+     * @see #createFromXml(javax.xml.stream.XMLStreamReader)
+     */
+    @Override
+    public void loadFromXml(XMLStreamReader reader) {
+        throw new UnsupportedOperationException("ConnectorShaps cannot be loaded. Use #createFromXml() for this.");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param writer
+     * @throws XMLStreamException
+     */
+    @Override
+    public void saveToXml(XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement("shape");
+        saveIdToXml(writer);
+        writer.writeEndElement();
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -64,8 +64,19 @@ public class ConnectorShapeFactory {
      * @return
      */
     ConnectorShape createShape() {
-        Random r = new Random();
-        int i = r.nextInt(connectorShapes.size()) + 1;
+        return createShape(new Random());
+    }
+
+    /**
+     * Creates a random shape for a puzzlepiece connection with the given
+     * random number generator.
+     *
+     * @param random
+     * @return
+     * @see #createShape()
+     */
+    ConnectorShape createShape(Random random) {
+        int i = random.nextInt(connectorShapes.size()) + 1;
 
         return connectorShapes.get(i);
     }
@@ -1,21 +1,39 @@
 package jigspuzzle.model.puzzle;
 
 import java.awt.Dimension;
-import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
-import jigspuzzle.JigSPuzzle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import jigspuzzle.controller.PuzzleareaGeometry;
 import jigspuzzle.controller.SettingsController;
+import jigspuzzle.model.ModelThread;
+import jigspuzzle.util.ByteBufferInputStream;
 import jigspuzzle.util.ImageUtil;
+import jigspuzzle.util.PlacementUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -42,6 +60,58 @@ public class Puzzle extends AbstractPuzzlesModel {
         return p;
     }
 
+    /**
+     * Creates a puzzle from the given reader
+     *
+     * @param reader
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException
+     * @see #loadFromXml(javax.xml.stream.XMLStreamReader)
+     */
+    public static Puzzle createFromXml(XMLStreamReader reader) throws IOException, XMLStreamException {
+        Puzzle p = new Puzzle();
+        p.loadFromXml(reader);
+        return p;
+    }
+
+    /**
+     * Creates a puzzle from the given stream.
+     *
+     * @param in
+     * @param version The version of the format, in which the puzzle was saved.
+     * @return
+     * @throws IOException
+     * @see #saveToStream(java.io.DataOutputStream)
+     */
+    public static Puzzle createFromStream(DataInputStream in, int version) throws IOException {
+        Puzzle p = new Puzzle();
+        p.loadFromStream(in, version);
+        return p;
+    }
+
+    /**
+     * Creates a puzzle from the given buffer, that contains the same as the
+     * stream in <code>createFromStream</code>. The buffer is usually a mapped
+     * file.
+     *
+     * The puzzle is returned, before its image is decoded. Until then the
+     * puzzlepieces are empty. The image is decoded in the background and the
+     * groups are notified, when the images of their puzzlepieces are decoded.
+     *
+     * @param buffer
+     * @param version The version of the format, in which the puzzle was saved.
+     * @return
+     * @throws IOException
+     * @see #createFromStream(java.io.DataInputStream, int)
+     * @see #waitForImage()
+     */
+    public static Puzzle createFromBuffer(ByteBuffer buffer, int version) throws IOException {
+        Puzzle p = new Puzzle();
+        p.loadFromBuffer(buffer, version);
+        return p;
+    }
+
     /**
      * The pieces of the puzzle. Represented as groups of puzzlepieces.
      */
@@ -73,12 +143,75 @@ public class Puzzle extends AbstractPuzzlesModel {
      */
     Map<Integer, PuzzlepieceConnection> puzzlepieceConnections;
 
+    /**
+     * The seed, with that the random numbers for this puzzle are generated.
+     * Puzzles with the same image and the same seed get the same connectors
+     * and are shuffled the same way.
+     */
+    private long seed;
+
+    /**
+     * The random number generator for creating and shuffling this puzzle.
+     */
+    private Random random;
+
+    /**
+     * The journal, in which the changes of this puzzle are recorded. Can be
+     * <code>null</code>, if the changes are not recorded.
+     */
+    private volatile PuzzleJournal journal;
+
+    /**
+     * The decoding of the image, if it is still decoded in the background.
+     * Otherwise it is <code>null</code>. It never fails, the error is kept in
+     * <code>imageError</code>.
+     */
+    private volatile CompletableFuture<Void> imageLoading;
+
+    /**
+     * The error, with that the decoding of the image failed, or
+     * <code>null</code>, if the image was decoded or is still decoded.
+     */
+    private volatile IOException imageError;
+
+    /**
+     * The image as PNG strips, as it was loaded from a buffer, or
+     * <code>null</code>, if the puzzle was not loaded from a buffer. Used to
+     * save the puzzle without waiting for the image to be decoded. The strips
+     * keep the loaded file in memory, so they are released, when the image is
+     * decoded. Afterwards the decoded image is encoded again for saving.
+     */
+    private volatile List<ByteBuffer> imageStrips;
+
+    /**
+     * The changes of the puzzlepiece groups, that are delivered to the
+     * listeners once per frame.
+     */
+    private final PuzzlepieceGroupEventQueue eventQueue = new PuzzlepieceGroupEventQueue();
+
     private Puzzle() {
         puzzlepieceseGroups = null;
         puzzlepieceConnections = null;
+        setSeed(new Random().nextLong());
     }
 
     public Puzzle(BufferedImage image, int rowCount, int columnCount, int pieceWidth, int pieceHeight) {
+        this(image, rowCount, columnCount, pieceWidth, pieceHeight, new Random().nextLong());
+    }
+
+    /**
+     * Creates a new puzzle. All random numbers for this puzzle are generated
+     * from the given seed.
+     *
+     * @param image
+     * @param rowCount
+     * @param columnCount
+     * @param pieceWidth
+     * @param pieceHeight
+     * @param seed
+     */
+    public Puzzle(BufferedImage image, int rowCount, int columnCount, int pieceWidth, int pieceHeight, long seed) {
+        setSeed(seed);
         this.image = image;
         this.rowCount = rowCount;
         this.columnCount = columnCount;
@@ -86,41 +219,67 @@ public class Puzzle extends AbstractPuzzlesModel {
 
         puzzlepieceConnections = new HashMap<>();
         puzzlepieceseGroups = new ArrayList<>(rowCount * columnCount);
+
+        // create the pieces and connect them
         for (int x = 0; x < rowCount; x++) {
             for (int y = 0; y < columnCount; y++) {
-                BufferedImage img = new BufferedImage(image.getWidth() / columnCount, image.getHeight() / rowCount, image.getType());
-
-                // split the image in pieces
+                BufferedImage img = createPieceImage(image, x, y);
                 Puzzlepiece newPiece;
-                Graphics2D gr = img.createGraphics();
-                gr.drawImage(image,
-                        0, 0,
-                        img.getWidth(), img.getHeight(),
-                        img.getWidth() * y, img.getHeight() * x,
-                        img.getWidth() * y + img.getWidth(), img.getHeight() * x + img.getHeight(),
-                        null);
-                gr.dispose();
 
                 //TODO: refactor that puzzlepiece is contained in the group ('no piece without a group'...)
                 newPiece = new Puzzlepiece(img);
                 puzzlepieces[x][y] = newPiece;
-                puzzlepieceseGroups.add(x * columnCount + y, new PuzzlepieceGroup(this, newPiece, pieceWidth * y, pieceHeight * x));
 
                 // connect the puzzlepieces
                 PuzzlepieceConnection newConnection;
 
                 if (x > 0) {
-                    puzzlepieces[x][y].createConnectorToPiece(puzzlepieces[x - 1][y], ConnectorPosition.TOP);
+                    puzzlepieces[x][y].createConnectorToPiece(puzzlepieces[x - 1][y], ConnectorPosition.TOP, random);
                     newConnection = puzzlepieces[x][y].getConnectorForDirection(ConnectorPosition.TOP);
                     puzzlepieceConnections.put(newConnection.getId(), newConnection);
                 }
                 if (y > 0) {
-                    puzzlepieces[x][y].createConnectorToPiece(puzzlepieces[x][y - 1], ConnectorPosition.LEFT);
+                    puzzlepieces[x][y].createConnectorToPiece(puzzlepieces[x][y - 1], ConnectorPosition.LEFT, random);
                     newConnection = puzzlepieces[x][y].getConnectorForDirection(ConnectorPosition.LEFT);
                     puzzlepieceConnections.put(newConnection.getId(), newConnection);
                 }
             }
         }
+
+        // create the groups after all connections are known
+        for (int x = 0; x < rowCount; x++) {
+            for (int y = 0; y < columnCount; y++) {
+                puzzlepieceseGroups.add(x * columnCount + y, new PuzzlepieceGroup(this, puzzlepieces[x][y], pieceWidth * y, pieceHeight * x));
+            }
+        }
+    }
+
+    /**
+     * Creates the image of the puzzlepiece in the given row and column from
+     * the image of the puzzle. The image of the puzzlepiece shares its pixels
+     * with the image of the puzzle, so none of them may be changed.
+     *
+     * @param image
+     * @param row
+     * @param column
+     * @return
+     */
+    private BufferedImage createPieceImage(BufferedImage image, int row, int column) {
+        int width = image.getWidth() / columnCount;
+        int height = image.getHeight() / rowCount;
+
+        return image.getSubimage(width * column, height * row, width, height);
+    }
+
+    /**
+     * Adds a listener, that gets the changes of the puzzlepiece groups of this
+     * puzzle. The changes are delivered once per frame on the event dispatch
+     * thread.
+     *
+     * @param listener
+     */
+    public void addPuzzlepieceGroupListener(PuzzlepieceGroupListener listener) {
+        eventQueue.addListener(listener);
     }
 
     /**
@@ -137,6 +296,8 @@ public class Puzzle extends AbstractPuzzlesModel {
      */
     @Override
     public int hashCode() {
+        waitForImage();
+
         int hash = 3;
         hash = 89 * hash + Objects.hashCode(this.puzzlepieceseGroups);
         hash = 89 * hash + Objects.hashCode(this.image);
@@ -160,6 +321,8 @@ public class Puzzle extends AbstractPuzzlesModel {
             return false;
         }
         final Puzzle other = (Puzzle) obj;
+        this.waitForImage();
+        other.waitForImage();
         if (this.rowCount != other.rowCount) {
             return false;
         }
@@ -235,6 +398,292 @@ public class Puzzle extends AbstractPuzzlesModel {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadFromXml(XMLStreamReader reader) throws IOException, XMLStreamException {
+        if (!"puzzle".equals(reader.getLocalName())) {
+            skipElement(reader);
+            return;
+        }
+
+        while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "row-count":
+                    rowCount = Integer.parseInt(reader.getElementText().trim());
+                    break;
+                case "column-count":
+                    columnCount = Integer.parseInt(reader.getElementText().trim());
+                    break;
+                case "image":
+                    image = this.loadImageFromXml(reader);
+                    break;
+                case "connections":
+                    puzzlepieceConnections = new HashMap<>();
+
+                    while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+                        PuzzlepieceConnection connection = PuzzlepieceConnection.createFromXml(reader);
+                        puzzlepieceConnections.put(connection.getId(), connection);
+                    }
+                    break;
+                case "groups":
+                    puzzlepieceseGroups = new ArrayList<>();
+
+                    while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+                        puzzlepieceseGroups.add(PuzzlepieceGroup.createFromXml(reader, this));
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Loads this puzzle from the given stream.
+     *
+     * @param in
+     * @param version The version of the format, in which the puzzle was saved.
+     * @throws IOException
+     * @see #saveToStream(java.io.DataOutputStream)
+     */
+    private void loadFromStream(DataInputStream in, int version) throws IOException {
+        loadSizeFromStream(in, version);
+
+        // the image, that is saved in strips since version 3
+        BufferedImage bufferedImage;
+
+        if (version >= 3) {
+            bufferedImage = ImageUtil.readPngStrips(in);
+        } else {
+            byte[] imageBytes = new byte[in.readInt()];
+
+            in.readFully(imageBytes);
+            bufferedImage = ImageUtil.decodePngStrips(Collections.singletonList(ByteBuffer.wrap(imageBytes)));
+        }
+
+        image = bufferedImage;
+        loadPuzzlepiecesFromStream(in, bufferedImage);
+    }
+
+    /**
+     * Loads this puzzle from the given buffer. The image is decoded in the
+     * background.
+     *
+     * @param buffer
+     * @param version The version of the format, in which the puzzle was saved.
+     * @throws IOException
+     * @see #createFromBuffer(java.nio.ByteBuffer, int)
+     */
+    private void loadFromBuffer(ByteBuffer buffer, int version) throws IOException {
+        // the stream reads from the buffer, so both can be used one after another
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+
+        loadSizeFromStream(in, version);
+
+        // the image, that is saved in strips since version 3
+        List<ByteBuffer> strips;
+
+        if (version >= 3) {
+            strips = ImageUtil.slicePngStrips(buffer);
+        } else {
+            int length = in.readInt();
+
+            if (length < 0 || length > buffer.remaining()) {
+                throw new EOFException();
+            }
+            ByteBuffer strip = buffer.slice();
+            strip.limit(length);
+            buffer.position(buffer.position() + length);
+            strips = Collections.singletonList(strip);
+        }
+
+        BufferedImage bufferedImage = ImageUtil.createImageForPngStrips(strips);
+        Puzzlepiece[][] pieces;
+
+        image = bufferedImage;
+        imageStrips = strips;
+        pieces = loadPuzzlepiecesFromStream(in, bufferedImage);
+
+        // decode the image and show the decoded parts of it
+        int pieceHeight = bufferedImage.getHeight() / rowCount;
+
+        imageLoading = ImageUtil.decodePngStrips(strips, bufferedImage, (Rectangle area) -> {
+            // the groups of the puzzlepieces can only be read on the model thread
+            ModelThread.invokeLater(() -> {
+                Set<PuzzlepieceGroup> groups = Collections.newSetFromMap(new IdentityHashMap<>());
+                int firstRow = area.y / pieceHeight;
+                int lastRow = Math.min(rowCount - 1, (area.y + area.height - 1) / pieceHeight);
+
+                for (int row = firstRow; row <= lastRow; row++) {
+                    for (Puzzlepiece piece : pieces[row]) {
+                        if (piece.getPuzzlepieceGroup() != null) {
+                            groups.add(piece.getPuzzlepieceGroup());
+                        }
+                    }
+                }
+                for (PuzzlepieceGroup group : groups) {
+                    group.imageChanged();
+                }
+            });
+        }).handle((Void result, Throwable ex) -> {
+            if (ex != null) {
+                imageError = toIOException(ex);
+            }
+            imageStrips = null;
+            return null;
+        });
+    }
+
+    /**
+     * Gets the IOException, with that the decoding of the image failed.
+     */
+    private static IOException toIOException(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        if (ex instanceof UncheckedIOException) {
+            return ((UncheckedIOException) ex).getCause();
+        }
+        if (ex instanceof IOException) {
+            return (IOException) ex;
+        }
+        return new IOException(ex);
+    }
+
+    /**
+     * Loads the number of rows and columns and the seed of this puzzle from
+     * the given stream.
+     *
+     * @param in
+     * @param version The version of the format, in which the puzzle was saved.
+     * @throws IOException
+     */
+    private void loadSizeFromStream(DataInputStream in, int version) throws IOException {
+        rowCount = in.readInt();
+        columnCount = in.readInt();
+        if (rowCount <= 0 || columnCount <= 0) {
+            throw new IOException("Invalid size of the puzzle");
+        }
+        if (version >= 2) {
+            setSeed(in.readLong());
+        }
+    }
+
+    /**
+     * Loads the connections of the puzzlepieces and the groups of this puzzle
+     * from the given stream. The images of the puzzlepieces are taken from the
+     * given image.
+     *
+     * @param in
+     * @param bufferedImage
+     * @return The puzzlepieces on their position in the final puzzle.
+     * @throws IOException
+     */
+    private Puzzlepiece[][] loadPuzzlepiecesFromStream(DataInputStream in, BufferedImage bufferedImage) throws IOException {
+        // the puzzlepieces and the connections to the top and to the left of them
+        Puzzlepiece[][] pieces = new Puzzlepiece[rowCount][columnCount];
+
+        puzzlepieceConnections = new HashMap<>();
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                pieces[row][column] = new Puzzlepiece(createPieceImage(bufferedImage, row, column));
+
+                if (row > 0) {
+                    loadConnectionFromStream(in, pieces[row][column], pieces[row - 1][column], ConnectorPosition.TOP);
+                }
+                if (column > 0) {
+                    loadConnectionFromStream(in, pieces[row][column], pieces[row][column - 1], ConnectorPosition.LEFT);
+                }
+            }
+        }
+
+        // the groups
+        int n = in.readInt();
+
+        puzzlepieceseGroups = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            puzzlepieceseGroups.add(PuzzlepieceGroup.createFromStream(in, this, pieces));
+        }
+        return pieces;
+    }
+
+    /**
+     * Loads the connection between the given puzzlepieces from the given
+     * stream.
+     *
+     * @param in
+     * @param piece
+     * @param otherPiece
+     * @param position the position where <b>the other</b> puzzlepiece is <b>in
+     * comparision to the</b> puzzlepiece.
+     * @throws IOException
+     */
+    private void loadConnectionFromStream(DataInputStream in, Puzzlepiece piece, Puzzlepiece otherPiece, ConnectorPosition position) throws IOException {
+        PuzzlepieceConnection connection = PuzzlepieceConnection.createFromStream(in, piece, otherPiece);
+
+        piece.connectToPiece(otherPiece, position, connection);
+        puzzlepieceConnections.put(connection.getId(), connection);
+    }
+
+    /**
+     * Returns all puzzlepieces on their position in the final puzzle. The
+     * position is found by following the connections from the puzzlepiece in
+     * the top left corner.
+     *
+     * @return
+     */
+    private Puzzlepiece[][] getPuzzlepiecesOnFinalPosition() {
+        Puzzlepiece[][] pieces = new Puzzlepiece[rowCount][columnCount];
+        Puzzlepiece firstPieceInRow = null;
+
+        // the puzzlepiece in the top left corner is the only one without
+        // connections to the top and to the left
+        for (PuzzlepieceGroup group : puzzlepieceseGroups) {
+            for (Puzzlepiece piece : group.getPuzzlepieces()) {
+                if (piece.getConnectorForDirection(ConnectorPosition.TOP) == null
+                        && piece.getConnectorForDirection(ConnectorPosition.LEFT) == null) {
+                    firstPieceInRow = piece;
+                }
+            }
+        }
+
+        for (int row = 0; row < rowCount; row++) {
+            Puzzlepiece piece = firstPieceInRow;
+
+            for (int column = 0; column < columnCount; column++) {
+                pieces[row][column] = piece;
+                if (column < columnCount - 1) {
+                    piece = getOtherPuzzlepiece(piece, ConnectorPosition.RIGHT);
+                }
+            }
+            if (row < rowCount - 1) {
+                firstPieceInRow = getOtherPuzzlepiece(firstPieceInRow, ConnectorPosition.BUTTOM);
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * Returns the puzzlepiece, that is connected to the given puzzlepiece in
+     * the given direction.
+     *
+     * @param piece
+     * @param direction
+     * @return
+     */
+    private Puzzlepiece getOtherPuzzlepiece(Puzzlepiece piece, ConnectorPosition direction) {
+        PuzzlepieceConnection connection = piece.getConnectorForDirection(direction);
+
+        if (connection.getInPuzzlepiece() == piece) {
+            return connection.getOutPuzzlepiece();
+        } else {
+            return connection.getInPuzzlepiece();
+        }
+    }
+
     /**
      * Removes the given puzzlepiece group from the puzzle.
      *
@@ -244,11 +693,22 @@ public class Puzzle extends AbstractPuzzlesModel {
         puzzlepieceseGroups.remove(group);
     }
 
+    /**
+     * Removes the given listener for the changes of the puzzlepiece groups.
+     *
+     * @param listener
+     */
+    public void removePuzzlepieceGroupListener(PuzzlepieceGroupListener listener) {
+        eventQueue.removeListener(listener);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void saveToFile(Document doc, Element rootElement) throws IOException {
+        waitForCompleteImage();
+
         Element element = doc.createElement("puzzle");
         rootElement.appendChild(element);
 
@@ -278,48 +738,183 @@ public class Puzzle extends AbstractPuzzlesModel {
         element.appendChild(tmpElement);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveToXml(XMLStreamWriter writer) throws IOException, XMLStreamException {
+        waitForCompleteImage();
+        writer.writeStartElement("puzzle");
+
+        writer.writeStartElement("row-count");
+        writer.writeCharacters(String.valueOf(rowCount));
+        writer.writeEndElement();
+
+        writer.writeStartElement("column-count");
+        writer.writeCharacters(String.valueOf(columnCount));
+        writer.writeEndElement();
+
+        writer.writeStartElement("image");
+        this.saveImageToXml(writer, image);
+        writer.writeEndElement();
+
+        writer.writeStartElement("connections");
+        for (PuzzlepieceConnection connection : puzzlepieceConnections.values()) {
+            connection.saveToXml(writer);
+        }
+        writer.writeEndElement();
+
+        writer.writeStartElement("groups");
+        for (PuzzlepieceGroup group : puzzlepieceseGroups) {
+            group.saveToXml(writer);
+        }
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
+    /**
+     * Creates a snapshot of this puzzle, that can be saved, while this puzzle
+     * is changed.
+     *
+     * When the puzzle was loaded from a buffer and its image is still decoded,
+     * the image is taken as it was loaded and this does not wait for the image
+     * to be decoded.
+     *
+     * @return
+     * @throws IOException If the image of this puzzle could not be decoded.
+     * Then the image is not complete and must not be saved.
+     */
+    public PuzzleSnapshot createSnapshot() throws IOException {
+        ByteArrayOutputStream layout = new ByteArrayOutputStream();
+        List<ByteBuffer> strips = imageStrips;
+
+        if (strips == null) {
+            waitForCompleteImage();
+        } else {
+            checkImageError();
+        }
+        saveLayoutToStream(new DataOutputStream(layout));
+        if (strips != null) {
+            return new PuzzleSnapshot(rowCount, columnCount, seed, strips, layout.toByteArray());
+        }
+        return new PuzzleSnapshot(rowCount, columnCount, seed,
+                ImageUtil.transformImageToBufferedImage(image), layout.toByteArray());
+    }
+
+    /**
+     * Saves this puzzle to the given stream. The image is saved only once and
+     * the images of the puzzlepieces are created from it when loading.
+     *
+     * @param out
+     * @throws IOException Also, if the image of this puzzle could not be
+     * decoded.
+     * @see #createFromStream(java.io.DataInputStream)
+     * @see PuzzleSnapshot#saveToStream(java.io.DataOutputStream,
+     * java.util.function.IntConsumer)
+     */
+    public void saveToStream(DataOutputStream out) throws IOException {
+        createSnapshot().saveToStream(out, null);
+    }
+
+    /**
+     * Saves the connections of the puzzlepieces and the groups of this puzzle
+     * to the given stream. These are saved after the image.
+     *
+     * @param out
+     * @throws IOException
+     */
+    private void saveLayoutToStream(DataOutputStream out) throws IOException {
+        // the connections to the top and to the left of every puzzlepiece
+        Puzzlepiece[][] pieces = getPuzzlepiecesOnFinalPosition();
+        Map<Puzzlepiece, Integer> indexOfPieces = new IdentityHashMap<>();
+
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                Puzzlepiece piece = pieces[row][column];
+
+                indexOfPieces.put(piece, row * columnCount + column);
+                if (row > 0) {
+                    piece.getConnectorForDirection(ConnectorPosition.TOP).saveToStream(out, piece);
+                }
+                if (column > 0) {
+                    piece.getConnectorForDirection(ConnectorPosition.LEFT).saveToStream(out, piece);
+                }
+            }
+        }
+
+        // the groups
+        out.writeInt(puzzlepieceseGroups.size());
+        for (PuzzlepieceGroup group : puzzlepieceseGroups) {
+            Puzzlepiece piece = group.getPuzzlepieces().get(0);
+            int index = indexOfPieces.get(piece);
+
+            group.saveToStream(out,
+                    index / columnCount - group.getYPositionOfPieceInGroup(piece),
+                    index % columnCount - group.getXPositionOfPieceInGroup(piece));
+        }
+    }
+
     /**
      * Shuffles the puzzle on the puzzleare, so that all puzzlepieces get new
      * coordinates.
      *
-     * @param waitBetweenShuffle The Time in miliseconds that should be waited
-     * before the next puzzlepiece gets a new coordinate.
+     * The new coordinates of all puzzlepiece groups are computed first and
+     * then all groups are moved at once on the model thread. The views can
+     * animate the moves.
+     *
+     * @see ModelThread
+     * @see PuzzlepieceGroupEvent.Type#SHUFFLED
      */
-    public void shufflePuzzlepieces(int waitBetweenShuffle) {
+    public void shufflePuzzlepieces() {
         //todo: should this not be in PuzzleController?
         // get the shape of the puzzlearea
-        Rectangle screenBounds;
-        Area screenArea = new Area();
+        PuzzleareaGeometry geometry = SettingsController.getInstance().getPuzzleareaGeometry();
+        Rectangle[] screens = geometry.getScreens();
+        Dimension pieceSize = geometry.getPuzzlepieceSize();
 
-        for (Rectangle screen : JigSPuzzle.getInstance().getPuzzleWindow().getPuzzleareaBounds()) {
-            screenArea.add(new Area(screen));
-        }
-        screenBounds = screenArea.getBounds();
+        ModelThread.invokeAndWait(() -> {
+            List<PuzzlepieceGroup> groups = getPuzzlepieceGroups();
+            Point[] positions = getShufflePositions(groups, screens, pieceSize);
 
-        // get random numbers in the puzzlearea for every coordinate
-        Random r = new Random();
-        Dimension pieceSize = SettingsController.getInstance().getPuzzlepieceSize();
-
-        for (int i = 0; i < puzzlepieceseGroups.size(); i++) {
-            PuzzlepieceGroup group = puzzlepieceseGroups.get(i);
-            try {
-                Thread.sleep(waitBetweenShuffle);
-            } catch (InterruptedException ex) {
+            for (int i = 0; i < groups.size(); i++) {
+                groups.get(i).shuffleTo(positions[i].x, positions[i].y);
             }
-            try {
-                int newX, newY;
-
-                do {
-                    newX = r.nextInt(screenBounds.width) + screenBounds.x;
-                    newY = r.nextInt(screenBounds.height) + screenBounds.y;
-                } while (!screenArea.contains(newX, newY, pieceSize.getWidth() * group.getMaxPuzzlePiecesInXDirection(), pieceSize.height * group.getMaxPuzzlePiecesInYDirection()));
-                group.setX(newX);
-                group.setY(newY);
-            } catch (NullPointerException ex) {
-                // puzzlepiece group was already connected to another group and does not exist anymore
-                continue;
+            if (journal != null) {
+                journal.recordShuffle(groups);
             }
+        });
+    }
+
+    /**
+     * Gets new random positions for the given puzzlepiece groups in the given
+     * screens. The groups do not overlap, as long as there is enough space.
+     *
+     * @param groups
+     * @param screens The screens, in which the groups have to lay completely.
+     * @param pieceSize The size of one puzzlepiece.
+     * @return The new position for every group in the order of the groups.
+     * @see PlacementUtil#placeRectangles(Dimension[], Rectangle[], Dimension,
+     * Random)
+     */
+    private Point[] getShufflePositions(List<PuzzlepieceGroup> groups, Rectangle[] screens, Dimension pieceSize) {
+        Dimension[] sizes = new Dimension[groups.size()];
+
+        for (int i = 0; i < groups.size(); i++) {
+            PuzzlepieceGroup group = groups.get(i);
+
+            sizes[i] = new Dimension(pieceSize.width * group.getMaxPuzzlePiecesInXDirection(),
+                    pieceSize.height * group.getMaxPuzzlePiecesInYDirection());
         }
+
+        // without a puzzlearea, the groups are shuffled over the area, that the
+        // completed puzzle takes
+        if (screens.length == 0) {
+            screens = new Rectangle[]{new Rectangle(0, 0, pieceSize.width * columnCount, pieceSize.height * rowCount)};
+        }
+
+        // the connectors of two neighbours stick out up to half a puzzlepiece each
+        return PlacementUtil.placeRectangles(sizes, screens, pieceSize, random);
     }
 
     /**
@@ -349,6 +944,79 @@ public class Puzzle extends AbstractPuzzlesModel {
         return image;
     }
 
+    /**
+     * Waits, until the image of this puzzle is decoded completely. The image
+     * is decoded in the background, when the puzzle was loaded from a buffer.
+     * If a part of the image cannot be decoded, it stays empty.
+     *
+     * @see #createFromBuffer(java.nio.ByteBuffer, int)
+     * @see #waitForCompleteImage()
+     */
+    public void waitForImage() {
+        CompletableFuture<Void> loading = imageLoading;
+        boolean interrupted = false;
+
+        if (loading == null) {
+            return;
+        }
+        while (true) {
+            try {
+                loading.get();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            } catch (ExecutionException ex) {
+                break;
+            }
+        }
+        imageLoading = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits, until the image of this puzzle is decoded completely, and checks,
+     * that it could be decoded.
+     *
+     * @throws IOException If a part of the image could not be decoded.
+     * @see #waitForImage()
+     */
+    public void waitForCompleteImage() throws IOException {
+        waitForImage();
+        checkImageError();
+    }
+
+    /**
+     * Calls the given action, when the image of this puzzle is decoded
+     * completely. The action is called at once, if the image is not decoded
+     * in the background, and otherwise on the thread, that decoded the image.
+     *
+     * @param action Gets the error, with that the decoding of the image
+     * failed, or <code>null</code>, if the image was decoded.
+     */
+    public void whenImageDecoded(Consumer<IOException> action) {
+        CompletableFuture<Void> loading = imageLoading;
+
+        if (loading == null) {
+            action.accept(imageError);
+        } else {
+            loading.thenRun(() -> action.accept(imageError));
+        }
+    }
+
+    /**
+     * Throws the error, with that the decoding of the image failed, if it is
+     * known yet.
+     */
+    private void checkImageError() throws IOException {
+        IOException error = imageError;
+
+        if (error != null) {
+            throw new IOException("Cannot decode the image of the puzzle", error);
+        }
+    }
+
     /**
      * Returns the PuzzlepieceConnection with the given ID.
      *
@@ -359,6 +1027,55 @@ public class Puzzle extends AbstractPuzzlesModel {
         return puzzlepieceConnections.get(id);
     }
 
+    /**
+     * Gets the queue, to that the puzzlepiece groups of this puzzle post their
+     * changes.
+     *
+     * @return
+     */
+    PuzzlepieceGroupEventQueue getEventQueue() {
+        return eventQueue;
+    }
+
+    /**
+     * Gets the journal, in which the changes of this puzzle are recorded.
+     *
+     * @return The journal or <code>null</code>, if the changes are not
+     * recorded.
+     */
+    PuzzleJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the journal, in which the changes of this puzzle are recorded.
+     *
+     * @param journal
+     */
+    void setJournal(PuzzleJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the seed, with that the random numbers for this puzzle are
+     * generated.
+     *
+     * @return
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed and resets the random number generator of this puzzle.
+     *
+     * @param seed
+     */
+    private void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
     /**
      * Gets the number of rows in this puzzle.
      *
@@ -0,0 +1,475 @@
+package jigspuzzle.model.puzzle;
+
+import java.awt.event.ActionEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.Timer;
+import jigspuzzle.model.ModelThread;
+
+/**
+ * A journal, in which the changes of a puzzle since its last snapshot are
+ * recorded. A snapshot is a saved puzzle. The puzzle can be recovered by
+ * loading the snapshot and replaying the journal on it.
+ *
+ * Only moves of puzzlepiece groups, shuffles of the puzzle and merges of two
+ * groups are recorded. Every change is a small record, that is appended to the
+ * file of the journal, so recording costs only as much as changed. A shuffle is
+ * one record for all groups. The records are written to the file at most once
+ * per frame, so only the changes of the last frame can get lost.
+ *
+ * The groups are identified by their index in the puzzle at the time of the
+ * snapshot. Merges do not create new groups, so these indexes are the same
+ * while recording and replaying.
+ *
+ * @author RoseTec
+ */
+public class PuzzleJournal implements Closeable {
+
+    /**
+     * The first bytes of a journal.
+     */
+    private static final int JOURNAL_MAGIC_NUMBER = 0x4A49474A; // "JIGJ"
+
+    /**
+     * The version of the format of journals.
+     */
+    private static final int JOURNAL_VERSION = 2;
+
+    /**
+     * The position of the checksum of the snapshot in the file of a journal.
+     */
+    private static final int SNAPSHOT_CHECKSUM_POSITION = 8;
+
+    /**
+     * A record for a puzzlepiece group, that was moved.
+     */
+    private static final byte RECORD_MOVE = 1;
+
+    /**
+     * A record for a puzzlepiece group, that was merged into another group.
+     */
+    private static final byte RECORD_MERGE = 2;
+
+    /**
+     * A record for the puzzle, that was shuffled. Since version 2.
+     */
+    private static final byte RECORD_SHUFFLE = 3;
+
+    /**
+     * Creates a new journal for the given puzzle and starts recording its
+     * changes. If the file exists, it will be overwritten.
+     *
+     * @param puzzle
+     * @param file
+     * @param snapshotChecksum The checksum of the snapshot, on which this
+     * journal is based. The journal is only replayed on this snapshot. If the
+     * snapshot is not written yet, it can be set later.
+     * @return
+     * @throws IOException
+     * @see #moveTo(java.io.File, long)
+     */
+    public static PuzzleJournal create(Puzzle puzzle, File file, long snapshotChecksum) throws IOException {
+        PuzzleJournal journal = new PuzzleJournal(puzzle, file);
+
+        try {
+            journal.out.writeInt(JOURNAL_MAGIC_NUMBER);
+            journal.out.writeInt(JOURNAL_VERSION);
+            journal.out.writeLong(snapshotChecksum);
+            journal.out.flush();
+        } catch (IOException ex) {
+            journal.out.close();
+            throw ex;
+        }
+        puzzle.setJournal(journal);
+        return journal;
+    }
+
+    /**
+     * Replays the journal in the given file on the given puzzle, that was just
+     * loaded from the snapshot. A journal, that is not based on the snapshot,
+     * is ignored. The journal is replayed up to its end or up to the first
+     * incomplete or invalid record, e.g. because the program was killed while
+     * writing it.
+     *
+     * @param puzzle
+     * @param file
+     * @param snapshotChecksum The checksum of the snapshot, from which the
+     * puzzle was loaded.
+     * @return The number of replayed records.
+     * @throws IOException
+     */
+    public static int replay(Puzzle puzzle, File file, long snapshotChecksum) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            List<PuzzlepieceGroup> groups = puzzle.getPuzzlepieceGroups();
+            int recordCount = 0;
+
+            try {
+                if (in.readInt() != JOURNAL_MAGIC_NUMBER) {
+                    return 0;
+                }
+                int version = in.readInt();
+
+                if (version < 1 || version > JOURNAL_VERSION
+                        || in.readLong() != snapshotChecksum) {
+                    return 0;
+                }
+            } catch (EOFException ex) {
+                return 0;
+            }
+
+            while (true) {
+                int type = in.read();
+
+                if (type == -1) {
+                    break;
+                }
+                try {
+                    switch (type) {
+                        case RECORD_MOVE:
+                            replayMove(in, groups);
+                            break;
+                        case RECORD_MERGE:
+                            replayMerge(in, puzzle, groups);
+                            break;
+                        case RECORD_SHUFFLE:
+                            replayShuffle(in, groups);
+                            break;
+                        default:
+                            throw new InvalidRecordException();
+                    }
+                } catch (EOFException | InvalidRecordException ex) {
+                    break;
+                }
+                recordCount++;
+            }
+            return recordCount;
+        }
+    }
+
+    /**
+     * Replays a record for a moved group.
+     */
+    private static void replayMove(DataInputStream in, List<PuzzlepieceGroup> groups) throws IOException {
+        PuzzlepieceGroup group = getGroup(groups, in.readInt());
+        int x = in.readInt();
+        int y = in.readInt();
+
+        group.setPosition(x, y);
+    }
+
+    /**
+     * Replays a record for a shuffled puzzle. The record is read completely,
+     * before any group is moved.
+     */
+    private static void replayShuffle(DataInputStream in, List<PuzzlepieceGroup> groups) throws IOException {
+        int count = in.readInt();
+
+        if (count < 0 || count > groups.size()) {
+            throw new InvalidRecordException();
+        }
+        PuzzlepieceGroup[] shuffledGroups = new PuzzlepieceGroup[count];
+        int[] positions = new int[2 * count];
+
+        for (int i = 0; i < count; i++) {
+            shuffledGroups[i] = getGroup(groups, in.readInt());
+            positions[2 * i] = in.readInt();
+            positions[2 * i + 1] = in.readInt();
+        }
+        for (int i = 0; i < count; i++) {
+            shuffledGroups[i].setPosition(positions[2 * i], positions[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Replays a record for a merged group.
+     */
+    private static void replayMerge(DataInputStream in, Puzzle puzzle, List<PuzzlepieceGroup> groups) throws IOException {
+        PuzzlepieceGroup group = getGroup(groups, in.readInt());
+        PuzzlepieceGroup otherGroup = getGroup(groups, in.readInt());
+        PuzzlepieceConnection connection = puzzle.getPuzzlepieceConnectionWithId(in.readInt());
+        int x = in.readInt();
+        int y = in.readInt();
+
+        if (group == otherGroup || connection == null
+                || !(group.isPuzzlepieceContained(connection.getInPuzzlepiece()) && otherGroup.isPuzzlepieceContained(connection.getOutPuzzlepiece())
+                || group.isPuzzlepieceContained(connection.getOutPuzzlepiece()) && otherGroup.isPuzzlepieceContained(connection.getInPuzzlepiece()))) {
+            throw new InvalidRecordException();
+        }
+        group.addFromPuzzlepieceGroup(otherGroup, connection);
+        otherGroup.destroy();
+        group.setPosition(x, y);
+    }
+
+    /**
+     * Gets the group with the given index, that has to be still in the
+     * puzzle.
+     */
+    private static PuzzlepieceGroup getGroup(List<PuzzlepieceGroup> groups, int index) throws IOException {
+        if (index < 0 || index >= groups.size() || !groups.get(index).isInPuzzle()) {
+            throw new InvalidRecordException();
+        }
+        return groups.get(index);
+    }
+
+    /**
+     * Thrown, when a record of the journal does not fit to the puzzle.
+     */
+    private static class InvalidRecordException extends IOException {
+    }
+
+    /**
+     * The puzzle, whose changes are recorded.
+     */
+    private final Puzzle puzzle;
+
+    /**
+     * The indexes of the groups in the puzzle at the time of the snapshot.
+     */
+    private final Map<PuzzlepieceGroup, Integer> groupIndexes;
+
+    /**
+     * The file of this journal.
+     */
+    private File file;
+
+    /**
+     * The stream to the file of this journal.
+     */
+    private FileOutputStream fileOut;
+
+    /**
+     * The buffered stream to the file of this journal.
+     */
+    private DataOutputStream out;
+
+    /**
+     * The number of records in this journal.
+     */
+    private int recordCount;
+
+    /**
+     * Set, if a record could not be written. This journal does not record
+     * anything afterwards and cannot be replayed completely.
+     */
+    private boolean failed;
+
+    /**
+     * Writes the buffered records to the file in the next frame.
+     */
+    private final Timer flushTimer;
+
+    private PuzzleJournal(Puzzle puzzle, File file) throws IOException {
+        List<PuzzlepieceGroup> groups = puzzle.getPuzzlepieceGroups();
+
+        this.puzzle = puzzle;
+        this.file = file;
+        this.fileOut = new FileOutputStream(file);
+        this.out = new DataOutputStream(new BufferedOutputStream(fileOut));
+        this.groupIndexes = new IdentityHashMap<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            groupIndexes.put(groups.get(i), i);
+        }
+        this.flushTimer = new Timer(ModelThread.FRAME_DELAY, (ActionEvent e) -> {
+            flush();
+        });
+        flushTimer.setRepeats(false);
+    }
+
+    /**
+     * Stops recording and closes the file of this journal.
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flushTimer.stop();
+        if (puzzle.getJournal() == this) {
+            puzzle.setJournal(null);
+        }
+        failed = true;
+        out.close();
+    }
+
+    /**
+     * Sets the checksum of the snapshot, on which this journal is based, and
+     * moves the file of this journal to the given file. It is used, when the
+     * snapshot is written after this journal was created, so that the journal
+     * is only replayed, after the snapshot is written completely. Recording
+     * goes on in the moved file.
+     *
+     * @param file
+     * @param snapshotChecksum
+     * @throws IOException
+     */
+    public synchronized void moveTo(File file, long snapshotChecksum) throws IOException {
+        if (failed) {
+            throw new IOException("The journal is closed");
+        }
+        try {
+            ByteBuffer checksum = ByteBuffer.allocate(8);
+
+            checksum.putLong(snapshotChecksum).flip();
+            out.flush();
+            fileOut.getChannel().write(checksum, SNAPSHOT_CHECKSUM_POSITION);
+            fileOut.getFD().sync();
+            out.close();
+            Files.move(this.file.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.file = file;
+            fileOut = new FileOutputStream(file, true);
+            out = new DataOutputStream(new BufferedOutputStream(fileOut));
+        } catch (IOException ex) {
+            failed = true;
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the number of records in this journal.
+     *
+     * @return
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Checks, whether a record could not be written. In this case the journal
+     * does not contain all changes of the puzzle.
+     *
+     * @return
+     */
+    public synchronized boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Records, that the given group was merged with the other group. The other
+     * group is destroyed afterwards.
+     *
+     * @param group
+     * @param otherGroup
+     * @param connection
+     * @see PuzzlepieceGroup#addFromPuzzlepieceGroup(PuzzlepieceGroup,
+     * PuzzlepieceConnection)
+     */
+    synchronized void recordMerge(PuzzlepieceGroup group, PuzzlepieceGroup otherGroup, PuzzlepieceConnection connection) {
+        Integer index = groupIndexes.get(group);
+        Integer otherIndex = groupIndexes.get(otherGroup);
+
+        if (failed || index == null || otherIndex == null) {
+            failed = true;
+            return;
+        }
+        try {
+            out.writeByte(RECORD_MERGE);
+            out.writeInt(index);
+            out.writeInt(otherIndex);
+            out.writeInt(connection.getId());
+            out.writeInt(group.getX());
+            out.writeInt(group.getY());
+            recordCount++;
+            flushLater();
+        } catch (IOException ex) {
+            failed = true;
+        }
+    }
+
+    /**
+     * Records, that the given group was moved to its current position.
+     *
+     * @param group
+     * @see PuzzlepieceGroup#setPosition(int, int)
+     */
+    synchronized void recordMove(PuzzlepieceGroup group) {
+        Integer index = groupIndexes.get(group);
+
+        if (failed || index == null) {
+            failed = true;
+            return;
+        }
+        try {
+            out.writeByte(RECORD_MOVE);
+            out.writeInt(index);
+            out.writeInt(group.getX());
+            out.writeInt(group.getY());
+            recordCount++;
+            flushLater();
+        } catch (IOException ex) {
+            failed = true;
+        }
+    }
+
+    /**
+     * Records, that the given groups were shuffled to their current
+     * positions. All groups are recorded in one record.
+     *
+     * @param groups
+     * @see Puzzle#shufflePuzzlepieces()
+     */
+    synchronized void recordShuffle(List<PuzzlepieceGroup> groups) {
+        if (failed) {
+            return;
+        }
+        for (PuzzlepieceGroup group : groups) {
+            if (!groupIndexes.containsKey(group)) {
+                failed = true;
+                return;
+            }
+        }
+        try {
+            out.writeByte(RECORD_SHUFFLE);
+            out.writeInt(groups.size());
+            for (PuzzlepieceGroup group : groups) {
+                out.writeInt(groupIndexes.get(group));
+                out.writeInt(group.getX());
+                out.writeInt(group.getY());
+            }
+            recordCount++;
+            flushLater();
+        } catch (IOException ex) {
+            failed = true;
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file in the next frame, if this is
+     * not planned yet.
+     */
+    private void flushLater() {
+        if (!flushTimer.isRunning()) {
+            flushTimer.start();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     */
+    private synchronized void flush() {
+        if (failed) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException ex) {
+            failed = true;
+        }
+    }
+
+}
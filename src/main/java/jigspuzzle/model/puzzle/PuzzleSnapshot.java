@@ -0,0 +1,88 @@
+package jigspuzzle.model.puzzle;
+
+import java.awt.image.BufferedImage;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntConsumer;
+import jigspuzzle.util.ImageUtil;
+
+/**
+ * An unchangeable copy of the state of a puzzle, that can be saved on another
+ * thread, while the puzzle is changed.
+ *
+ * Creating a snapshot is cheap: The image of a puzzle never changes, so it is
+ * not copied. Only the connections and the groups of the puzzlepieces are
+ * copied in the format, in which they are saved. When the puzzle was loaded
+ * from a file, the image is saved as it was read, so the snapshot does not
+ * have to wait for the image to be decoded.
+ *
+ * @author RoseTec
+ * @see Puzzle#createSnapshot()
+ */
+public class PuzzleSnapshot {
+
+    private final int rowCount;
+
+    private final int columnCount;
+
+    private final long seed;
+
+    private final BufferedImage image;
+
+    /**
+     * The image encoded as PNG strips or <code>null</code>, if the image has
+     * to be encoded.
+     */
+    private final List<ByteBuffer> imageStrips;
+
+    /**
+     * The connections and the groups of the puzzlepieces, as they are saved
+     * after the image.
+     */
+    private final byte[] layout;
+
+    PuzzleSnapshot(int rowCount, int columnCount, long seed, BufferedImage image, byte[] layout) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.seed = seed;
+        this.image = image;
+        this.imageStrips = null;
+        this.layout = layout;
+    }
+
+    PuzzleSnapshot(int rowCount, int columnCount, long seed, List<ByteBuffer> imageStrips, byte[] layout) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.seed = seed;
+        this.image = null;
+        this.imageStrips = imageStrips;
+        this.layout = layout;
+    }
+
+    /**
+     * Saves the puzzle of this snapshot to the given stream.
+     *
+     * @param out
+     * @param progress Gets the percentage of the saved puzzle from time to
+     * time. Can be <code>null</code>.
+     * @throws IOException
+     * @see Puzzle#createFromStream(java.io.DataInputStream, int)
+     */
+    public void saveToStream(DataOutputStream out, IntConsumer progress) throws IOException {
+        out.writeInt(rowCount);
+        out.writeInt(columnCount);
+        out.writeLong(seed);
+
+        // the image takes nearly all the time
+        if (imageStrips != null) {
+            ImageUtil.writePngStrips(imageStrips, out, progress);
+        } else {
+            ImageUtil.writePngStrips(image, out, progress);
+        }
+
+        out.write(layout);
+    }
+
+}
@@ -5,6 +5,10 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.Random;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import jigspuzzle.util.ImageUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -32,6 +36,22 @@ public class Puzzlepiece extends AbstractPuzzlesModel {
         return piece;
     }
 
+    /**
+     * Creates a Puzzlepiece from the given reader
+     *
+     * @param reader
+     * @param group
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException
+     * @see #loadFromXml(javax.xml.stream.XMLStreamReader)
+     */
+    public static Puzzlepiece createFromXml(XMLStreamReader reader, PuzzlepieceGroup group) throws IOException, XMLStreamException {
+        Puzzlepiece piece = new Puzzlepiece(group);
+        piece.loadFromXml(reader);
+        return piece;
+    }
+
     /**
      * The Images that this piece has.
      */
@@ -48,6 +68,22 @@ public class Puzzlepiece extends AbstractPuzzlesModel {
      */
     private PuzzlepieceConnection[] connectors = null;
 
+    /**
+     * The row of this puzzlepiece in the grid of its group. It is set by the
+     * grid and is only valid, while this puzzlepiece is contained in it.
+     *
+     * @see PuzzlepieceGrid#getRow(Puzzlepiece)
+     */
+    int rowInGrid;
+
+    /**
+     * The column of this puzzlepiece in the grid of its group. It is set by
+     * the grid and is only valid, while this puzzlepiece is contained in it.
+     *
+     * @see PuzzlepieceGrid#getColumn(Puzzlepiece)
+     */
+    int columnInGrid;
+
     public Puzzlepiece(PuzzlepieceGroup group) {
         connectors = new PuzzlepieceConnection[ConnectorPosition.numberOfElements()];
         this.group = group;
@@ -113,6 +149,20 @@ public class Puzzlepiece extends AbstractPuzzlesModel {
      * <code>false</code>.
      */
     boolean createConnectorToPiece(Puzzlepiece otherPiece, ConnectorPosition position) {
+        return createConnectorToPiece(otherPiece, position, new Random());
+    }
+
+    /**
+     * Creates a connector to the other puzzlepiece.
+     *
+     * @param otherPiece
+     * @param position the position where <b>the other</b> puzzlepiece is <b>in
+     * comparision to this</b> puzzlepiece.
+     * @param random The random number generator for the connector.
+     * @return <code>true</code>, if the connection is creates succesfully, else
+     * <code>false</code>.
+     */
+    boolean createConnectorToPiece(Puzzlepiece otherPiece, ConnectorPosition position, Random random) {
         // test for valid connecters
         if (connectors[position.intValue()] != null
                 || connectors[position.getOpposite().intValue()] != null) {
@@ -120,13 +170,22 @@ public class Puzzlepiece extends AbstractPuzzlesModel {
         }
 
         // create connection
-        PuzzlepieceConnection connection = new PuzzlepieceConnection(new Puzzlepiece[]{this, otherPiece});
+        connectToPiece(otherPiece, position, new PuzzlepieceConnection(new Puzzlepiece[]{this, otherPiece}, random));
+
+        return true;
+    }
 
-        // add connection to this model and the other piece
+    /**
+     * Adds the given connection to this puzzlepiece and the other puzzlepiece.
+     *
+     * @param otherPiece
+     * @param position the position where <b>the other</b> puzzlepiece is <b>in
+     * comparision to this</b> puzzlepiece.
+     * @param connection
+     */
+    void connectToPiece(Puzzlepiece otherPiece, ConnectorPosition position, PuzzlepieceConnection connection) {
         this.connectors[position.intValue()] = connection;
         otherPiece.connectors[position.getOpposite().intValue()] = connection;
-
-        return true;
     }
 
     @Override
@@ -174,6 +233,75 @@ public class Puzzlepiece extends AbstractPuzzlesModel {
         }
     }
 
+    @Override
+    public void loadFromXml(XMLStreamReader reader) throws IOException, XMLStreamException {
+        if (!"puzzlepiece".equals(reader.getLocalName())) {
+            skipElement(reader);
+            return;
+        }
+
+        while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "img":
+                    Image img = this.loadImageFromXml(reader);
+                    image = ImageUtil.transformImageToBufferedImage(img);
+                    break;
+                case "connectors":
+                    while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+                        int id, position;
+                        boolean isInPuzzlepiece;
+
+                        if (!"connector".equals(reader.getLocalName())) {
+                            skipElement(reader);
+                            continue;
+                        }
+                        position = Integer.parseInt(reader.getAttributeValue(null, "position"));
+                        isInPuzzlepiece = Boolean.parseBoolean(reader.getAttributeValue(null, "is-in"));
+                        id = Integer.parseInt(reader.getElementText().trim());
+
+                        connectors[position] = group.getPuzzle().getPuzzlepieceConnectionWithId(id);
+                        if (connectors[position] == null) {
+                            throw new IOException("Unknown puzzlepiece connection: " + id);
+                        }
+                        if (isInPuzzlepiece) {
+                            connectors[position].setInPuzzlepiece(this);
+                        } else {
+                            connectors[position].setOutPuzzlepiece(this);
+                        }
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void saveToXml(XMLStreamWriter writer) throws IOException, XMLStreamException {
+        writer.writeStartElement("puzzlepiece");
+
+        writer.writeStartElement("img");
+        this.saveImageToXml(writer, image);
+        writer.writeEndElement();
+
+        // puzzlepiecegroup is done in PuzzlepieceGroup
+        writer.writeStartElement("connectors");
+        for (ConnectorPosition position : ConnectorPosition.values()) {
+            if (connectors[position.intValue()] == null) {
+                continue;
+            }
+            writer.writeStartElement("connector");
+            writer.writeAttribute("position", String.valueOf(position.intValue()));
+            writer.writeAttribute("is-in", String.valueOf(isInPieceInDirection(position)));
+            writer.writeCharacters(String.valueOf(connectors[position.intValue()].getId()));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
     @Override
     public void saveToFile(Document doc, Element rootElement) throws IOException {
         Element element = doc.createElement("puzzlepiece");
@@ -210,7 +338,8 @@ public class Puzzlepiece extends AbstractPuzzlesModel {
     }
 
     /**
-     * Returns the images that this puzzlepiece holds.
+     * Returns the images that this puzzlepiece holds. The image can share its
+     * pixels with the image of the puzzle, so it must not be changed.
      *
      * @return
      */
@@ -1,9 +1,14 @@
 package jigspuzzle.model.puzzle;
 
 import java.awt.geom.Path2D;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Objects;
 import java.util.Random;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -50,6 +55,48 @@ public class PuzzlepieceConnection extends AbstractPuzzlesModel {
         return connection;
     }
 
+    /**
+     * Creates a puzzle from the given reader
+     *
+     * @param reader
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException
+     * @see #loadFromXml(javax.xml.stream.XMLStreamReader)
+     */
+    public static PuzzlepieceConnection createFromXml(XMLStreamReader reader) throws IOException, XMLStreamException {
+        PuzzlepieceConnection connection = new PuzzlepieceConnection();
+        connection.loadFromXml(reader);
+        return connection;
+    }
+
+    /**
+     * Creates a connection between the two given puzzlepieces from the given
+     * stream.
+     *
+     * @param in
+     * @param piece The puzzlepiece, that was given when saving the connection.
+     * @param otherPiece The other puzzlepiece of the connection.
+     * @return
+     * @throws IOException
+     * @see #saveToStream(java.io.DataOutputStream,
+     * jigspuzzle.model.puzzle.Puzzlepiece)
+     */
+    static PuzzlepieceConnection createFromStream(DataInputStream in, Puzzlepiece piece, Puzzlepiece otherPiece) throws IOException {
+        PuzzlepieceConnection connection = new PuzzlepieceConnection();
+
+        connection.setId(in.readInt());
+        connection.setShape(in.readInt());
+        if (in.readBoolean()) {
+            connection.inPuzzlepiece = piece;
+            connection.outPuzzlepiece = otherPiece;
+        } else {
+            connection.inPuzzlepiece = otherPiece;
+            connection.outPuzzlepiece = piece;
+        }
+        return connection;
+    }
+
     /**
      * The shape of this Connector
      */
@@ -74,13 +121,23 @@ public class PuzzlepieceConnection extends AbstractPuzzlesModel {
      * 'out-Connector'-puzzlepiece.
      */
     public PuzzlepieceConnection(Puzzlepiece[] pieces) {
-        Random rn = new Random();
+        this(pieces, new Random());
+    }
+
+    /**
+     * @param pieces The <b>two</b> puzzlepieces. It will be random, which
+     * puzzlepiece is the 'in-Connector'-puzzlepiece and which is the
+     * 'out-Connector'-puzzlepiece.
+     * @param random The random number generator, that chooses the
+     * 'in-Connector'-puzzlepiece and the shape.
+     */
+    public PuzzlepieceConnection(Puzzlepiece[] pieces, Random random) {
         int inPieceIndex;
         int outPieceIndex;
 
-        inPieceIndex = rn.nextInt(2);
+        inPieceIndex = random.nextInt(2);
         outPieceIndex = inPieceIndex == 0 ? 1 : 0;
-        initConnector(pieces[inPieceIndex], pieces[outPieceIndex]);
+        initConnector(pieces[inPieceIndex], pieces[outPieceIndex], ConnectorShapeFactory.getInstance().createShape(random));
     }
 
     /**
@@ -130,7 +187,7 @@ public class PuzzlepieceConnection extends AbstractPuzzlesModel {
      * @param out The 'out-Connector'-puzzlepiece
      */
     public PuzzlepieceConnection(Puzzlepiece in, Puzzlepiece out) {
-        initConnector(in, out);
+        initConnector(in, out, ConnectorShapeFactory.getInstance().createShape());
     }
 
     /**
@@ -185,12 +242,10 @@ public class PuzzlepieceConnection extends AbstractPuzzlesModel {
         return shape.getShape();
     }
 
-    private void initConnector(Puzzlepiece in, Puzzlepiece out) {
+    private void initConnector(Puzzlepiece in, Puzzlepiece out, ConnectorShape shape) {
         this.inPuzzlepiece = in;
         this.outPuzzlepiece = out;
-
-        // create shape
-        this.shape = ConnectorShapeFactory.getInstance().createShape();
+        this.shape = shape;
     }
 
     @Override
@@ -214,6 +269,40 @@ public class PuzzlepieceConnection extends AbstractPuzzlesModel {
         }
     }
 
+    @Override
+    public void loadFromXml(XMLStreamReader reader) throws IOException, XMLStreamException {
+        if (!"puzzlepiece-connector".equals(reader.getLocalName())) {
+            skipElement(reader);
+            return;
+        }
+        this.loadIdFromXml(reader);
+
+        while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "connector-shape":
+                    while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+                        shape = ConnectorShape.createFromXml(reader);
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void saveToXml(XMLStreamWriter writer) throws IOException, XMLStreamException {
+        writer.writeStartElement("puzzlepiece-connector");
+        saveIdToXml(writer);
+
+        writer.writeStartElement("connector-shape");
+        shape.saveToXml(writer);
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
     @Override
     public void saveToFile(Document doc, Element rootElement) throws IOException {
         Element element = doc.createElement("puzzlepiece-connector");
@@ -227,6 +316,23 @@ public class PuzzlepieceConnection extends AbstractPuzzlesModel {
         element.appendChild(tmpElement);
     }
 
+    /**
+     * Saves this connection to the given stream. The puzzlepieces are not
+     * saved, only whether the given puzzlepiece is the
+     * 'in-connector'-puzzlepiece.
+     *
+     * @param out
+     * @param piece
+     * @throws IOException
+     * @see #createFromStream(java.io.DataInputStream,
+     * jigspuzzle.model.puzzle.Puzzlepiece, jigspuzzle.model.puzzle.Puzzlepiece)
+     */
+    void saveToStream(DataOutputStream out, Puzzlepiece piece) throws IOException {
+        out.writeInt(getId());
+        out.writeInt(shape.getId());
+        out.writeBoolean(inPuzzlepiece == piece);
+    }
+
     /**
      * Sets the shape to this connector to the one with the given id.
      *
@@ -0,0 +1,394 @@
+package jigspuzzle.model.puzzle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A grid, in which the puzzlepieces of a puzzlepiece group are stored
+ * according to their position in the final puzzle.
+ *
+ * The positions in the grid are given as row and column. The position (0,0)
+ * is allways the top left corner of the grid. The grid can grow in every
+ * direction. If it grows to the top or to the left, the positions of all
+ * puzzlepieces already in the grid are moved accordingly.
+ *
+ * Internally the puzzlepieces are stored in one array, that has some free space
+ * around the used rectangle. So growing the grid does not need to copy the
+ * array every time.
+ *
+ * Every puzzlepiece in the grid knows its own row and column, so the position
+ * of a puzzlepiece can be found without searching the grid. These are stored
+ * relative to the rows and columns the grid grew to the top and to the left,
+ * so they do not have to be changed, when the grid grows.
+ *
+ * @author RoseTec
+ * @see PuzzlepieceGroup
+ */
+class PuzzlepieceGrid {
+
+    /**
+     * The cells of the grid, stored row by row.
+     */
+    private Puzzlepiece[] cells;
+
+    /**
+     * The number of rows that the array <code>cells</code> can hold.
+     */
+    private int arrayRows;
+
+    /**
+     * The number of columns that the array <code>cells</code> can hold.
+     */
+    private int arrayColumns;
+
+    /**
+     * The row in the array, where the position (0,0) of this grid is stored.
+     */
+    private int originRow;
+
+    /**
+     * The column in the array, where the position (0,0) of this grid is
+     * stored.
+     */
+    private int originColumn;
+
+    /**
+     * The number of rows that are used in this grid.
+     */
+    private int rows;
+
+    /**
+     * The number of columns that are used in this grid.
+     */
+    private int columns;
+
+    /**
+     * The number of puzzlepieces in this grid.
+     */
+    private int size;
+
+    /**
+     * The number of rows, that this grid grew to the top since it was
+     * cleared. The row stored in a puzzlepiece plus this value is its row in
+     * this grid.
+     */
+    private int rowShift;
+
+    /**
+     * The number of columns, that this grid grew to the left since it was
+     * cleared. The column stored in a puzzlepiece plus this value is its
+     * column in this grid.
+     */
+    private int columnShift;
+
+    PuzzlepieceGrid() {
+        clear();
+    }
+
+    /**
+     * Adds all puzzlepieces from the other grid to this grid. The puzzlepiece
+     * on position (r,c) in the other grid is placed on position
+     * (r+rowOffset,c+columnOffset) of this grid, before this grid is moved.
+     *
+     * If an offset is negative, this grid grows to the top or to the left and
+     * all positions in this grid are moved by the absolute value of the
+     * offset.
+     *
+     * @param other
+     * @param rowOffset
+     * @param columnOffset
+     */
+    void addAll(PuzzlepieceGrid other, int rowOffset, int columnOffset) {
+        growToContain(rowOffset, columnOffset, rowOffset + other.rows, columnOffset + other.columns);
+        if (rowOffset < 0) {
+            rowOffset = 0;
+        }
+        if (columnOffset < 0) {
+            columnOffset = 0;
+        }
+
+        for (int row = 0; row < other.rows; row++) {
+            for (int column = 0; column < other.columns; column++) {
+                Puzzlepiece piece = other.get(row, column);
+
+                if (piece != null) {
+                    setInternal(row + rowOffset, column + columnOffset, piece);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes all puzzlepieces from this grid.
+     */
+    final void clear() {
+        cells = new Puzzlepiece[1];
+        arrayRows = 1;
+        arrayColumns = 1;
+        originRow = 0;
+        originColumn = 0;
+        rows = 0;
+        columns = 0;
+        size = 0;
+        rowShift = 0;
+        columnShift = 0;
+    }
+
+    /**
+     * Checks, whether the given puzzlepiece is contained in this grid.
+     *
+     * @param piece
+     * @return
+     */
+    boolean contains(Puzzlepiece piece) {
+        return piece != null && get(piece.rowInGrid + rowShift, piece.columnInGrid + columnShift) == piece;
+    }
+
+    /**
+     * Enlarges the grid to the bottom and to the right, so that it has at
+     * least the given number of rows and columns.
+     *
+     * @param minRows
+     * @param minColumns
+     */
+    void ensureSize(int minRows, int minColumns) {
+        growToContain(0, 0, Math.max(minRows, rows), Math.max(minColumns, columns));
+    }
+
+    /**
+     * Gets the puzzlepiece at the given position.
+     *
+     * @param row
+     * @param column
+     * @return The puzzlepiece or <code>null</code>, if there is no puzzlepiece
+     * at the given position or if the position is outside of this grid.
+     */
+    Puzzlepiece get(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return null;
+        }
+        return cells[index(row, column)];
+    }
+
+    /**
+     * Gets the column of the given puzzlepiece in this grid.
+     *
+     * @param piece
+     * @return The column or <code>-1</code>, if this grid does not contain the
+     * puzzlepiece.
+     */
+    int getColumn(Puzzlepiece piece) {
+        return contains(piece) ? piece.columnInGrid + columnShift : -1;
+    }
+
+    /**
+     * Gets the number of columns in this grid.
+     *
+     * @return
+     */
+    int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * Returns all puzzlepieces in this grid, row by row.
+     *
+     * @return
+     */
+    List<Puzzlepiece> getPuzzlepieces() {
+        List<Puzzlepiece> list = new ArrayList<>(size);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                Puzzlepiece piece = cells[index(row, column)];
+
+                if (piece != null) {
+                    list.add(piece);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the row of the given puzzlepiece in this grid.
+     *
+     * @param piece
+     * @return The row or <code>-1</code>, if this grid does not contain the
+     * puzzlepiece.
+     */
+    int getRow(Puzzlepiece piece) {
+        return contains(piece) ? piece.rowInGrid + rowShift : -1;
+    }
+
+    /**
+     * Gets the number of rows in this grid.
+     *
+     * @return
+     */
+    int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of puzzlepieces in this grid.
+     *
+     * @return
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks, whether this grid contains no puzzlepieces.
+     *
+     * @return
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Sets the puzzlepiece at the given position. If the position is outside
+     * of this grid, the grid grows. If the position is left or on the top of
+     * this grid, all positions in this grid are moved.
+     *
+     * @param row
+     * @param column
+     * @param piece
+     * @return The puzzlepiece that was at the given position.
+     */
+    Puzzlepiece set(int row, int column, Puzzlepiece piece) {
+        growToContain(row, column, row + 1, column + 1);
+        return setInternal(Math.max(row, 0), Math.max(column, 0), piece);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 37 * hash + rows;
+        hash = 37 * hash + columns;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                hash = 37 * hash + Objects.hashCode(cells[index(row, column)]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final PuzzlepieceGrid other = (PuzzlepieceGrid) obj;
+        if (this.rows != other.rows || this.columns != other.columns) {
+            return false;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (!Objects.equals(this.get(row, column), other.get(row, column))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Enlarges this grid, so that it contains all positions in the rectangle
+     * from (firstRow,firstColumn) to (endRow,endColumn) (end exclusive). If
+     * <code>firstRow</code> or <code>firstColumn</code> are negative, all
+     * positions are moved, so that the new rectangle starts at (0,0).
+     *
+     * The array is only copied, if the new rectangle does not fit into it. In
+     * this case the array at least doubles its size in every direction that
+     * grows, so that growing costs amortized constant time.
+     */
+    private void growToContain(int firstRow, int firstColumn, int endRow, int endColumn) {
+        int newFirstRow = Math.min(0, firstRow);
+        int newFirstColumn = Math.min(0, firstColumn);
+        int newEndRow = Math.max(rows, endRow);
+        int newEndColumn = Math.max(columns, endColumn);
+
+        // the rectangle in array-coordinates
+        int arrayFirstRow = originRow + newFirstRow;
+        int arrayFirstColumn = originColumn + newFirstColumn;
+        int arrayEndRow = originRow + newEndRow;
+        int arrayEndColumn = originColumn + newEndColumn;
+
+        if (arrayFirstRow < 0 || arrayFirstColumn < 0
+                || arrayEndRow > arrayRows || arrayEndColumn > arrayColumns) {
+            // copy to a bigger array with free space in the growing directions
+            int spaceTop = arrayFirstRow < 0 ? newEndRow - newFirstRow : 0;
+            int spaceLeft = arrayFirstColumn < 0 ? newEndColumn - newFirstColumn : 0;
+            int spaceButtom = arrayEndRow > arrayRows ? newEndRow - newFirstRow : 0;
+            int spaceRight = arrayEndColumn > arrayColumns ? newEndColumn - newFirstColumn : 0;
+            int newArrayRows = spaceTop + (newEndRow - newFirstRow) + spaceButtom;
+            int newArrayColumns = spaceLeft + (newEndColumn - newFirstColumn) + spaceRight;
+            int newOriginRow = spaceTop - newFirstRow;
+            int newOriginColumn = spaceLeft - newFirstColumn;
+            Puzzlepiece[] newCells = new Puzzlepiece[newArrayRows * newArrayColumns];
+
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(cells, index(row, 0),
+                        newCells, (newOriginRow + row) * newArrayColumns + newOriginColumn,
+                        columns);
+            }
+            cells = newCells;
+            arrayRows = newArrayRows;
+            arrayColumns = newArrayColumns;
+            originRow = newOriginRow;
+            originColumn = newOriginColumn;
+        }
+
+        // move the position (0,0) to the new top left corner
+        originRow += newFirstRow;
+        originColumn += newFirstColumn;
+        rowShift -= newFirstRow;
+        columnShift -= newFirstColumn;
+        rows = newEndRow - newFirstRow;
+        columns = newEndColumn - newFirstColumn;
+    }
+
+    /**
+     * Gets the index in the array for the given position.
+     */
+    private int index(int row, int column) {
+        return (originRow + row) * arrayColumns + originColumn + column;
+    }
+
+    /**
+     * Sets the puzzlepiece at the given position, that has to be inside this
+     * grid.
+     */
+    private Puzzlepiece setInternal(int row, int column, Puzzlepiece piece) {
+        int index = index(row, column);
+        Puzzlepiece oldPiece = cells[index];
+
+        cells[index] = piece;
+        if (oldPiece != null) {
+            size--;
+        }
+        if (piece != null) {
+            piece.rowInGrid = row - rowShift;
+            piece.columnInGrid = column - columnShift;
+            size++;
+        }
+        return oldPiece;
+    }
+
+}
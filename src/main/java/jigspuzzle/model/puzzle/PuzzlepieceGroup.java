@@ -1,12 +1,21 @@
 package jigspuzzle.model.puzzle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Observable;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import jigspuzzle.controller.PuzzleareaGeometry;
 import jigspuzzle.controller.SettingsController;
 import jigspuzzle.model.Savable;
+import jigspuzzle.model.XmlStreamSavable;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -19,7 +28,7 @@ import org.w3c.dom.NodeList;
  *
  * @author RoseTec
  */
-public class PuzzlepieceGroup extends Observable implements Savable {
+public class PuzzlepieceGroup implements Savable, XmlStreamSavable {
 
     /**
      * Creates a PuzzlepieceGroup from the given file
@@ -37,18 +46,61 @@ public class PuzzlepieceGroup extends Observable implements Savable {
     }
 
     /**
-     * All puzzlepieces are stored in this array. We agree on the following:
+     * Creates a PuzzlepieceGroup from the given reader
+     *
+     * @param reader
+     * @param puzzle
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException
+     * @see #loadFromXml(javax.xml.stream.XMLStreamReader)
+     */
+    public static PuzzlepieceGroup createFromXml(XMLStreamReader reader, Puzzle puzzle) throws IOException, XMLStreamException {
+        PuzzlepieceGroup group = new PuzzlepieceGroup(puzzle);
+        group.loadFromXml(reader);
+        return group;
+    }
+
+    /**
+     * Creates a PuzzlepieceGroup from the given stream.
+     *
+     * @param in
+     * @param puzzle
+     * @param puzzlepieces All puzzlepieces of the puzzle on their position in
+     * the final puzzle.
+     * @return
+     * @throws IOException
+     * @see #saveToStream(java.io.DataOutputStream, int, int)
+     */
+    static PuzzlepieceGroup createFromStream(DataInputStream in, Puzzle puzzle, Puzzlepiece[][] puzzlepieces) throws IOException {
+        PuzzlepieceGroup group = new PuzzlepieceGroup(puzzle);
+        group.loadFromStream(in, puzzlepieces);
+        return group;
+    }
+
+    /**
+     * All puzzlepieces are stored in this grid. We agree on the following:
      *
      * The puzzlepieces in this group are strored according to the position in
-     * the final puzzle in this array. That does <b>not</b> mean, that the
-     * puzzlepiece (0,0) in this array is the toppest left puzzlepiece in the
+     * the final puzzle in this grid. That does <b>not</b> mean, that the
+     * puzzlepiece (0,0) in this grid is the toppest left puzzlepiece in the
      * final puzzle.<br>
-     * However, the position (0,1) in this array belongs to the puzzlepiece that
+     * However, the position (0,1) in this grid belongs to the puzzlepiece that
      * is in the final puzzle right to the puzzlepiece on position (0,0). There
      * can be a puzzlepiece-group where the puzzlepiece to the top of position
      * (0,0) is contained.
      */
-    private ArrayList<ArrayList<Puzzlepiece>> puzzlepiecesList;
+    private final PuzzlepieceGrid puzzlepieces;
+
+    /**
+     * The puzzlepiece-connections of the puzzlepieces in this group, that are
+     * not connected with another puzzlepiece in this group. They are stored for
+     * each direction seperately with their ID as key and are updated, when
+     * groups are merged.
+     *
+     * @see #getPuzzlepieceConnectionsInPosition(ConnectorPosition)
+     */
+    private final Map<ConnectorPosition, Map<Integer, PuzzlepieceConnection>> openPuzzlepieceConnections;
 
     /**
      * The x-coordinate of this group. It indicates where in the puzzlearea this
@@ -69,16 +121,29 @@ public class PuzzlepieceGroup extends Observable implements Savable {
 
     private PuzzlepieceGroup(Puzzle puzzle) {
         this.puzzle = puzzle;
-        puzzlepiecesList = null;
+        puzzlepieces = new PuzzlepieceGrid();
+        openPuzzlepieceConnections = new EnumMap<>(ConnectorPosition.class);
+        for (ConnectorPosition direction : ConnectorPosition.values()) {
+            openPuzzlepieceConnections.put(direction, new LinkedHashMap<>());
+        }
     }
 
+    /**
+     * Creates a group that contains only the given puzzlepiece. The
+     * connections of the puzzlepiece have to be created before.
+     *
+     * @param puzzle
+     * @param puzzlepiece
+     * @param x
+     * @param y
+     */
     PuzzlepieceGroup(Puzzle puzzle, Puzzlepiece puzzlepiece, int x, int y) {
-        this.puzzle = puzzle;
+        this(puzzle);
         this.x = x;
         this.y = y;
-        this.puzzlepiecesList = new ArrayList<>();
         this.addPuzzlepieceAtPosition(puzzlepiece, 0, 0);
         puzzlepiece.setPuzzlepieceGroup(this);
+        updateOpenPuzzlepieceConnections();
     }
 
     /**
@@ -90,20 +155,15 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      */
     public void addFromPuzzlepieceGroup(PuzzlepieceGroup otherGroup, PuzzlepieceConnection connection) {
         // Get the puzzlepiece of the connection in this group and in the other group
-        Puzzlepiece pieceThis = null;
-        Puzzlepiece pieceOther = null;
-
-        for (Puzzlepiece piece : this.getPuzzlepieces()) {
-            if (piece == connection.getInPuzzlepiece()
-                    || piece == connection.getOutPuzzlepiece()) {
-                pieceThis = piece;
-            }
-        }
-        for (Puzzlepiece piece : otherGroup.getPuzzlepieces()) {
-            if (piece == connection.getInPuzzlepiece()
-                    || piece == connection.getOutPuzzlepiece()) {
-                pieceOther = piece;
-            }
+        Puzzlepiece pieceThis;
+        Puzzlepiece pieceOther;
+
+        if (this.isPuzzlepieceContained(connection.getInPuzzlepiece())) {
+            pieceThis = connection.getInPuzzlepiece();
+            pieceOther = connection.getOutPuzzlepiece();
+        } else {
+            pieceThis = connection.getOutPuzzlepiece();
+            pieceOther = connection.getInPuzzlepiece();
         }
 
         // Get the direction of the other group
@@ -143,91 +203,51 @@ public class PuzzlepieceGroup extends Observable implements Savable {
                 break;
         }
 
-        // adjust the dimensions of the arraylists if necessary
-        int puzzlepieceHeight = SettingsController.getInstance().getPuzzlepieceSize().height;
-        int puzzlepieceWidth = SettingsController.getInstance().getPuzzlepieceSize().width;
-
-        if (rPositionOther - rPositionInOtherGroup < rPositionThis) {
-            int toAdd = rPositionThis + rPositionInOtherGroup - rPositionOther;
-            for (int i = 0; i < toAdd; i++) {
-                puzzlepiecesList.add(0, new ArrayList<>());
-            }
-            y -= puzzlepieceHeight * toAdd;
-            rPositionThis += toAdd;
-            rPositionOther += toAdd;
+        // add the other pieces. If they are left or on the top of this group,
+        // the group grows in that direction and its position moves.
+        PuzzleareaGeometry geometry = SettingsController.getInstance().getPuzzleareaGeometry();
+        int puzzlepieceHeight = geometry.getPuzzlepieceHeight();
+        int puzzlepieceWidth = geometry.getPuzzlepieceWidth();
+        int rowOffset = rPositionOther - rPositionInOtherGroup;
+        int columnOffset = cPositionOther - cPositionInOtherGroup;
+
+        puzzlepieces.addAll(otherGroup.puzzlepieces, rowOffset, columnOffset);
+        for (Puzzlepiece piece : otherGroup.puzzlepieces.getPuzzlepieces()) {
+            piece.setPuzzlepieceGroup(this);
         }
-        if (cPositionOther - cPositionInOtherGroup < cPositionThis) {
-            int toAdd = cPositionThis + cPositionInOtherGroup - cPositionOther;
-            for (ArrayList<Puzzlepiece> row : puzzlepiecesList) {
-                for (int i = 0; i < toAdd; i++) {
-                    row.add(0, null);
-                }
-            }
-            x -= puzzlepieceWidth * toAdd;
-            cPositionThis += toAdd;
-            cPositionOther += toAdd;
+        if (rowOffset < 0) {
+            y += puzzlepieceHeight * rowOffset;
         }
-
-        // add the other pieces
-        for (int rIndex = otherGroup.puzzlepiecesList.size() - 1; rIndex >= 0; rIndex--) {
-            ArrayList<Puzzlepiece> row = otherGroup.puzzlepiecesList.get(rIndex);
-            for (int cIndex = 0; cIndex < row.size(); cIndex++) {
-                Puzzlepiece piece = row.get(cIndex);
-                if (piece != null) {
-                    addPuzzlepieceAtPosition(piece, rPositionOther + rIndex - rPositionInOtherGroup, cPositionOther + cIndex - cPositionInOtherGroup);
-                }
-            }
+        if (columnOffset < 0) {
+            x += puzzlepieceWidth * columnOffset;
         }
 
-        // rescue: Delete the first rows if there are no puzzlepieces
-        // Sometimes after the 'merge' the first rows contain no elements.
-        // Don't know, why they was added in first place... :(
-        boolean firstRowOnlyNullValues = true;
-        ArrayList<Puzzlepiece> firstRow;
-
-        try {
-            while (firstRowOnlyNullValues) {
-                firstRow = puzzlepiecesList.get(0);
-                for (Puzzlepiece piece : firstRow) {
-                    if (piece != null) {
-                        firstRowOnlyNullValues = false;
-                        break;
-                    }
-                }
-                if (firstRowOnlyNullValues) {
-                    puzzlepiecesList.remove(0);
-                    y += puzzlepieceHeight;
+        // update the open connections: connections between the two groups
+        // are now inside this group, all others stay open
+        for (ConnectorPosition direction : ConnectorPosition.values()) {
+            for (PuzzlepieceConnection openConnection : otherGroup.openPuzzlepieceConnections.get(direction).values()) {
+                if (openPuzzlepieceConnections.get(direction.getOpposite()).remove(openConnection.getId()) == null) {
+                    openPuzzlepieceConnections.get(direction).put(openConnection.getId(), openConnection);
                 }
             }
-        } catch (IndexOutOfBoundsException ex) {
         }
 
-        // rescue: Delete the first columns if all have there a 'null'
-        // Sometimes after the 'merge' the first columns of the rows contains no elements.
-        // Don't know, why they was added in first place... :(
-        boolean firstColumnOnlyNullValues = true;
-
-        try {
-            while (firstColumnOnlyNullValues) {
-                for (ArrayList<Puzzlepiece> row : puzzlepiecesList) {
-                    if (row.get(0) != null) {
-                        firstColumnOnlyNullValues = false;
-                        break;
-                    }
-                }
-                if (firstColumnOnlyNullValues) {
-                    for (ArrayList<Puzzlepiece> row : puzzlepiecesList) {
-                        row.remove(0);
-                    }
-                    x += puzzlepieceWidth;
-                }
-            }
-        } catch (IndexOutOfBoundsException ex) {
+        // record the merge
+        if (puzzle != null && puzzle.getJournal() != null) {
+            puzzle.getJournal().recordMerge(this, otherGroup, connection);
         }
 
-        // notify observers
-        setChanged();
-        notifyObservers();
+        // notify listeners
+        postEvent(PuzzlepieceGroupEvent.Type.MERGED, otherGroup);
+    }
+
+    /**
+     * Notifies the listeners, that the images of the puzzlepieces in this
+     * group have changed, e.g. because they were decoded in the background.
+     * It can be called from any thread.
+     */
+    void imageChanged() {
+        postEvent(PuzzlepieceGroupEvent.Type.IMAGE_CHANGED, null);
     }
 
     /**
@@ -235,10 +255,12 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * puzzlepieces.
      */
     public void destroy() {
-        puzzlepiecesList.clear();
+        puzzlepieces.clear();
+        for (Map<Integer, PuzzlepieceConnection> connections : openPuzzlepieceConnections.values()) {
+            connections.clear();
+        }
         puzzle.removePuzzlepieceGroup(this);
-        setChanged();
-        notifyObservers();
+        postEvent(PuzzlepieceGroupEvent.Type.DESTROYED, null);
     }
 
     @Override
@@ -264,28 +286,161 @@ public class PuzzlepieceGroup extends Observable implements Savable {
                 case "puzzlepieces":
                     NodeList childs = node.getChildNodes();
                     int rows = childs.getLength();
-                    puzzlepiecesList = new ArrayList<>(rows);
 
+                    puzzlepieces.clear();
                     for (int rowNumber = 0; rowNumber < rows; rowNumber++) {
                         Node row = childs.item(rowNumber);
                         NodeList rowChilds = row.getChildNodes();
                         int colums = rowChilds.getLength();
-                        ArrayList<Puzzlepiece> puzzlepieces = new ArrayList<>(colums);
 
+                        puzzlepieces.ensureSize(rowNumber + 1, colums);
                         for (int colNumber = 0; colNumber < colums; colNumber++) {
                             Node puzzlepieceNode = rowChilds.item(colNumber);
-                            Puzzlepiece piece;
 
-                            if ("null".equals(puzzlepieceNode.getNodeName())) {
-                                piece = null;
+                            if (!"null".equals(puzzlepieceNode.getNodeName())) {
+                                puzzlepieces.set(rowNumber, colNumber, Puzzlepiece.createFromFile((Element) puzzlepieceNode, this));
+                            }
+                        }
+                    }
+                    break;
+            }
+        }
+        updateOpenPuzzlepieceConnections();
+    }
+
+    @Override
+    public void loadFromXml(XMLStreamReader reader) throws IOException, XMLStreamException {
+        if (!"group".equals(reader.getLocalName())) {
+            AbstractPuzzlesModel.skipElement(reader);
+            return;
+        }
+
+        while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "x":
+                    x = Integer.parseInt(reader.getElementText().trim());
+                    break;
+                case "y":
+                    y = Integer.parseInt(reader.getElementText().trim());
+                    break;
+                //case "puzzle": is set in Puzzle
+                case "puzzlepieces":
+                    int rowNumber = 0;
+
+                    puzzlepieces.clear();
+                    while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+                        int colNumber = 0;
+
+                        while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+                            puzzlepieces.ensureSize(rowNumber + 1, colNumber + 1);
+                            if ("null".equals(reader.getLocalName())) {
+                                AbstractPuzzlesModel.skipElement(reader);
                             } else {
-                                piece = Puzzlepiece.createFromFile((Element) puzzlepieceNode, this);
+                                puzzlepieces.set(rowNumber, colNumber, Puzzlepiece.createFromXml(reader, this));
                             }
-                            puzzlepieces.add(piece);
+                            colNumber++;
                         }
-                        puzzlepiecesList.add(puzzlepieces);
+                        puzzlepieces.ensureSize(rowNumber + 1, 0);
+                        rowNumber++;
                     }
                     break;
+                default:
+                    AbstractPuzzlesModel.skipElement(reader);
+                    break;
+            }
+        }
+        updateOpenPuzzlepieceConnections();
+    }
+
+    @Override
+    public void saveToXml(XMLStreamWriter writer) throws IOException, XMLStreamException {
+        writer.writeStartElement("group");
+
+        writer.writeStartElement("x");
+        writer.writeCharacters(String.valueOf(x));
+        writer.writeEndElement();
+
+        writer.writeStartElement("y");
+        writer.writeCharacters(String.valueOf(y));
+        writer.writeEndElement();
+
+        // puzzle is done in Puzzle
+        writer.writeStartElement("puzzlepieces");
+        writer.writeAttribute("rows", "" + puzzlepieces.getRowCount());
+        for (int row = 0; row < puzzlepieces.getRowCount(); row++) {
+            writer.writeStartElement("row");
+
+            for (int column = 0; column < puzzlepieces.getColumnCount(); column++) {
+                Puzzlepiece piece = puzzlepieces.get(row, column);
+
+                if (piece == null) {
+                    writer.writeEmptyElement("null");
+                } else {
+                    piece.saveToXml(writer);
+                }
+            }
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
+    /**
+     * Loads this group from the given stream.
+     *
+     * @param in
+     * @param puzzlepieces All puzzlepieces of the puzzle on their position in
+     * the final puzzle.
+     * @throws IOException
+     * @see #saveToStream(java.io.DataOutputStream, int, int)
+     */
+    private void loadFromStream(DataInputStream in, Puzzlepiece[][] puzzlepieces) throws IOException {
+        x = in.readInt();
+        y = in.readInt();
+        int firstRow = in.readInt();
+        int firstColumn = in.readInt();
+        int n = in.readInt();
+
+        this.puzzlepieces.clear();
+        for (int i = 0; i < n; i++) {
+            int row = in.readInt();
+            int column = in.readInt();
+
+            try {
+                addPuzzlepieceAtPosition(puzzlepieces[firstRow + row][firstColumn + column], row, column);
+            } catch (ArrayIndexOutOfBoundsException ex) {
+                throw new IOException("Puzzlepiece outside of the puzzle", ex);
+            }
+        }
+        updateOpenPuzzlepieceConnections();
+    }
+
+    /**
+     * Saves this group to the given stream. For the puzzlepieces only their
+     * positions are saved.
+     *
+     * @param out
+     * @param firstRow The row of the top left corner of this group in the
+     * final puzzle.
+     * @param firstColumn The column of the top left corner of this group in
+     * the final puzzle.
+     * @throws IOException
+     * @see #createFromStream(java.io.DataInputStream,
+     * jigspuzzle.model.puzzle.Puzzle, jigspuzzle.model.puzzle.Puzzlepiece[][])
+     */
+    void saveToStream(DataOutputStream out, int firstRow, int firstColumn) throws IOException {
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeInt(firstRow);
+        out.writeInt(firstColumn);
+        out.writeInt(puzzlepieces.getSize());
+        for (int row = 0; row < puzzlepieces.getRowCount(); row++) {
+            for (int column = 0; column < puzzlepieces.getColumnCount(); column++) {
+                if (puzzlepieces.get(row, column) != null) {
+                    out.writeInt(row);
+                    out.writeInt(column);
+                }
             }
         }
     }
@@ -306,11 +461,13 @@ public class PuzzlepieceGroup extends Observable implements Savable {
 
         // puzzle is done in Puzzle
         tmpElement = doc.createElement("puzzlepieces");
-        tmpElement.setAttribute("rows", "" + puzzlepiecesList.size());
-        for (List<Puzzlepiece> row : puzzlepiecesList) {
+        tmpElement.setAttribute("rows", "" + puzzlepieces.getRowCount());
+        for (int row = 0; row < puzzlepieces.getRowCount(); row++) {
             tmpElement2 = doc.createElement("row");
 
-            for (Puzzlepiece piece : row) {
+            for (int column = 0; column < puzzlepieces.getColumnCount(); column++) {
+                Puzzlepiece piece = puzzlepieces.get(row, column);
+
                 if (piece == null) {
                     tmpElement2.appendChild(doc.createElement("null"));
                 } else {
@@ -328,7 +485,7 @@ public class PuzzlepieceGroup extends Observable implements Savable {
     @Override
     public int hashCode() {
         int hash = 3;
-        hash = 53 * hash + Objects.hashCode(this.puzzlepiecesList);
+        hash = 53 * hash + Objects.hashCode(this.puzzlepieces);
         hash = 53 * hash + this.x;
         hash = 53 * hash + this.y;
         return hash;
@@ -355,7 +512,7 @@ public class PuzzlepieceGroup extends Observable implements Savable {
         if (this.y != other.y) {
             return false;
         }
-        if (!this.puzzlepiecesList.equals(other.puzzlepiecesList)) {
+        if (!this.puzzlepieces.equals(other.puzzlepieces)) {
             return false;
         }
         return true;
@@ -367,68 +524,18 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * @return
      */
     public List<Puzzlepiece> getPuzzlepieces() {
-        List<Puzzlepiece> list = new ArrayList<>();
-
-        for (ArrayList<Puzzlepiece> row : puzzlepiecesList) {
-            for (Puzzlepiece piece : row) {
-                if (piece != null) {
-                    list.add(piece);
-                }
-            }
-        }
-
-        return list;
+        return puzzlepieces.getPuzzlepieces();
     }
 
     /**
-     * Gets all the puzzlepiece-connections in the given direction
+     * Gets all the puzzlepiece-connections in the given direction, that are
+     * not connected to another puzzlepiece in this group.
      *
      * @param direction
      * @return
      */
     public List<PuzzlepieceConnection> getPuzzlepieceConnectionsInPosition(ConnectorPosition direction) {
-        List<PuzzlepieceConnection> connections = new ArrayList<>();
-
-        for (int rIndex = puzzlepiecesList.size() - 1; rIndex >= 0; rIndex--) {
-            ArrayList<Puzzlepiece> row = puzzlepiecesList.get(rIndex);
-            for (int cIndex = 0; cIndex < row.size(); cIndex++) {
-                Puzzlepiece piece = row.get(cIndex);
-
-                if (piece == null) {
-                    continue;
-                }
-                try {
-                    int otherRow = rIndex;
-                    int otherColumn = cIndex;
-
-                    switch (direction) {
-                        case LEFT:
-                            otherColumn -= 1;
-                            break;
-                        case RIGHT:
-                            otherColumn += 1;
-                            break;
-                        case TOP:
-                            otherRow -= 1;
-                            break;
-                        case BUTTOM:
-                            otherRow += 1;
-                            break;
-                    }
-                    if (puzzlepiecesList.get(otherRow).get(otherColumn) != null) {
-                        continue;
-                    }
-                } catch (IndexOutOfBoundsException ex) {
-                }
-
-                PuzzlepieceConnection newConnection = piece.getConnectorForDirection(direction);
-                if (newConnection != null) {
-                    connections.add(newConnection);
-                }
-            }
-        }
-
-        return connections;
+        return new ArrayList<>(openPuzzlepieceConnections.get(direction).values());
     }
 
     /**
@@ -437,14 +544,7 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * @return
      */
     public int getMaxPuzzlePiecesInXDirection() {
-        int maxNumber = 0;
-
-        for (List<Puzzlepiece> row : puzzlepiecesList) {
-            if (row.size() > maxNumber) {
-                maxNumber = row.size();
-            }
-        }
-        return maxNumber;
+        return puzzlepieces.getColumnCount();
     }
 
     /**
@@ -453,7 +553,7 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * @return
      */
     public int getMaxPuzzlePiecesInYDirection() {
-        return puzzlepiecesList.size();
+        return puzzlepieces.getRowCount();
     }
 
     /**
@@ -464,18 +564,8 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * <code>-1</code> if this group does not contain the puzzlepiece.
      */
     public int getXPositionOfPieceInGroup(Puzzlepiece puzzlepiece) {
-        for (int rIndex = puzzlepiecesList.size() - 1; rIndex >= 0; rIndex--) {
-            ArrayList<Puzzlepiece> row = puzzlepiecesList.get(rIndex);
-            for (int cIndex = 0; cIndex < row.size(); cIndex++) {
-                Puzzlepiece piece = row.get(cIndex);
-
-                if (piece == puzzlepiece) {
-                    return cIndex;
-                }
-            }
-        }
-
-        return -1;
+        // the grid returns -1 for pieces, that it does not contain
+        return puzzlepieces.getColumn(puzzlepiece);
     }
 
     /**
@@ -486,18 +576,8 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * <code>-1</code> if this group does not contain the puzzlepiece.
      */
     public int getYPositionOfPieceInGroup(Puzzlepiece puzzlepiece) {
-        for (int rIndex = puzzlepiecesList.size() - 1; rIndex >= 0; rIndex--) {
-            ArrayList<Puzzlepiece> row = puzzlepiecesList.get(rIndex);
-            for (int cIndex = 0; cIndex < row.size(); cIndex++) {
-                Puzzlepiece piece = row.get(cIndex);
-
-                if (piece == puzzlepiece) {
-                    return rIndex;
-                }
-            }
-        }
-
-        return -1;
+        // the grid returns -1 for pieces, that it does not contain
+        return puzzlepieces.getRow(puzzlepiece);
     }
 
     /**
@@ -528,10 +608,35 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * @param y
      */
     public void setPosition(int x, int y) {
+        moveTo(x, y, PuzzlepieceGroupEvent.Type.MOVED);
+    }
+
+    /**
+     * Sets the x- and y-coordinates of this group, because the puzzle was
+     * shuffled. The listeners can animate this move. The move is not recorded
+     * in the journal, the puzzle records the whole shuffle at once.
+     *
+     * @param x
+     * @param y
+     * @see Puzzle#shufflePuzzlepieces()
+     */
+    void shuffleTo(int x, int y) {
+        this.x = x;
+        this.y = y;
+        postEvent(PuzzlepieceGroupEvent.Type.SHUFFLED, null);
+    }
+
+    /**
+     * Moves this group to the given position, records the move and notifies
+     * the listeners with an event of the given type.
+     */
+    private void moveTo(int x, int y, PuzzlepieceGroupEvent.Type type) {
         this.x = x;
         this.y = y;
-        setChanged();
-        notifyObservers();
+        if (puzzle != null && puzzle.getJournal() != null) {
+            puzzle.getJournal().recordMove(this);
+        }
+        postEvent(type, null);
     }
 
     /**
@@ -543,6 +648,19 @@ public class PuzzlepieceGroup extends Observable implements Savable {
         return puzzle;
     }
 
+    /**
+     * Posts a change of this group to the listeners of the puzzle.
+     *
+     * @param type
+     * @param otherGroup The group, that was merged into this group, or
+     * <code>null</code>.
+     */
+    private void postEvent(PuzzlepieceGroupEvent.Type type, PuzzlepieceGroup otherGroup) {
+        if (puzzle != null) {
+            puzzle.getEventQueue().post(new PuzzlepieceGroupEvent(type, this, otherGroup, x, y));
+        }
+    }
+
     void setPuzzle(Puzzle puzzle) {
         this.puzzle = puzzle;
     }
@@ -573,7 +691,7 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * @return
      */
     public boolean isInPuzzle() {
-        return !puzzlepiecesList.isEmpty();
+        return !puzzlepieces.isEmpty();
     }
 
     /**
@@ -583,16 +701,53 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * @return
      */
     public boolean isPuzzlepieceContained(Puzzlepiece puzzlepiece) {
-        boolean contained = false;
+        return puzzlepiece != null
+                && puzzlepiece.getPuzzlepieceGroup() == this
+                && puzzlepieces.contains(puzzlepiece);
+    }
 
-        for (Puzzlepiece tempPuzzlepiece : getPuzzlepieces()) {
-            if (tempPuzzlepiece == puzzlepiece) {
-                contained = true;
-                break;
+    /**
+     * Calculates the open puzzlepiece-connections of this group from the
+     * puzzlepieces in it.
+     *
+     * @see #openPuzzlepieceConnections
+     */
+    private void updateOpenPuzzlepieceConnections() {
+        for (ConnectorPosition direction : ConnectorPosition.values()) {
+            Map<Integer, PuzzlepieceConnection> connections = openPuzzlepieceConnections.get(direction);
+
+            connections.clear();
+            for (int rIndex = 0; rIndex < puzzlepieces.getRowCount(); rIndex++) {
+                for (int cIndex = 0; cIndex < puzzlepieces.getColumnCount(); cIndex++) {
+                    Puzzlepiece piece = puzzlepieces.get(rIndex, cIndex);
+                    int otherRow = rIndex;
+                    int otherColumn = cIndex;
+
+                    if (piece == null || piece.getConnectorForDirection(direction) == null) {
+                        continue;
+                    }
+                    switch (direction) {
+                        case LEFT:
+                            otherColumn -= 1;
+                            break;
+                        case RIGHT:
+                            otherColumn += 1;
+                            break;
+                        case TOP:
+                            otherRow -= 1;
+                            break;
+                        case BUTTOM:
+                            otherRow += 1;
+                            break;
+                    }
+                    if (puzzlepieces.get(otherRow, otherColumn) == null) {
+                        PuzzlepieceConnection connection = piece.getConnectorForDirection(direction);
+
+                        connections.put(connection.getId(), connection);
+                    }
+                }
             }
         }
-
-        return contained;
     }
 
     /**
@@ -604,31 +759,8 @@ public class PuzzlepieceGroup extends Observable implements Savable {
      * @return The puzzlepiece that was at the given position.
      */
     private Puzzlepiece addPuzzlepieceAtPosition(Puzzlepiece puzzlepiece, int x, int y) {
-        // get row index or create it
-        ArrayList<Puzzlepiece> row;
-
-        try {
-            row = puzzlepiecesList.get(x);
-        } catch (IndexOutOfBoundsException ex) {
-            for (int i = puzzlepiecesList.size(); i <= x; i++) {
-                row = new ArrayList<>();
-                puzzlepiecesList.add(row);
-            }
-            row = puzzlepiecesList.get(x);
-        }
-
-        // save the element currently at this position
-        try {
-            row.get(y);
-        } catch (IndexOutOfBoundsException ex) {
-            for (int i = row.size(); i <= y; i++) {
-                row.add(null);
-            }
-        }
-
-        // add the new element
         puzzlepiece.setPuzzlepieceGroup(this);
-        return row.set(y, puzzlepiece);
+        return puzzlepieces.set(x, y, puzzlepiece);
     }
 
 }
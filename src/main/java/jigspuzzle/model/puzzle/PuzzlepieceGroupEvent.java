@@ -0,0 +1,107 @@
+package jigspuzzle.model.puzzle;
+
+/**
+ * A change of a puzzlepiece group. The event contains, what has changed, so
+ * that a listener does not need to read the whole group again.
+ *
+ * @author RoseTec
+ * @see PuzzlepieceGroupListener
+ */
+public class PuzzlepieceGroupEvent {
+
+    /**
+     * The types of changes of a puzzlepiece group.
+     */
+    public enum Type {
+
+        /**
+         * The group was moved to a new position.
+         */
+        MOVED,
+        /**
+         * The group was moved to a new position, because the puzzle was
+         * shuffled. The move can be animated.
+         */
+        SHUFFLED,
+        /**
+         * The puzzlepieces of another group were merged into the group. The
+         * other group is destroyed afterwards.
+         */
+        MERGED,
+        /**
+         * The group was destroyed and is not in the puzzle anymore.
+         */
+        DESTROYED,
+        /**
+         * The images of the puzzlepieces in the group have changed, e.g.
+         * because they were decoded in the background.
+         */
+        IMAGE_CHANGED;
+
+    }
+
+    private final Type type;
+
+    private final PuzzlepieceGroup group;
+
+    private final PuzzlepieceGroup otherGroup;
+
+    private final int x;
+
+    private final int y;
+
+    PuzzlepieceGroupEvent(Type type, PuzzlepieceGroup group, PuzzlepieceGroup otherGroup, int x, int y) {
+        this.type = type;
+        this.group = group;
+        this.otherGroup = otherGroup;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Gets the group, that has changed.
+     *
+     * @return
+     */
+    public PuzzlepieceGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * Gets the group, whose puzzlepieces were merged into the changed group.
+     *
+     * @return The other group for a <code>MERGED</code> event, otherwise
+     * <code>null</code>.
+     */
+    public PuzzlepieceGroup getOtherGroup() {
+        return otherGroup;
+    }
+
+    /**
+     * Gets the type of the change.
+     *
+     * @return
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the x-coordinate of the group after the change.
+     *
+     * @return
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinate of the group after the change.
+     *
+     * @return
+     */
+    public int getY() {
+        return y;
+    }
+
+}
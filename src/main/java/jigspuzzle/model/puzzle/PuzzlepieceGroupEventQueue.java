@@ -0,0 +1,126 @@
+package jigspuzzle.model.puzzle;
+
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.Timer;
+import jigspuzzle.model.ModelThread;
+
+/**
+ * Collects the changes of the puzzlepiece groups of a puzzle and delivers them
+ * to the listeners once per frame on the event dispatch thread. So moving
+ * thousands of groups at once costs the listeners one call and not one call
+ * for each move.
+ *
+ * The changes can be posted from any thread.
+ *
+ * @author RoseTec
+ */
+class PuzzlepieceGroupEventQueue {
+
+    private final List<PuzzlepieceGroupListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The changes, that are not delivered yet.
+     */
+    private List<PuzzlepieceGroupEvent> events = new ArrayList<>();
+
+    /**
+     * The indexes of the moves in the changes, that are not delivered yet. A
+     * new move of a group replaces its last move, also when it was shuffled.
+     */
+    private final Map<PuzzlepieceGroup, Integer> moveIndexes = new IdentityHashMap<>();
+
+    /**
+     * The time in milliseconds, when the changes were delivered last.
+     */
+    private long lastDeliveryTime = 0;
+
+    /**
+     * Delivers the changes in the next frame.
+     */
+    private final Timer deliveryTimer;
+
+    PuzzlepieceGroupEventQueue() {
+        deliveryTimer = new Timer(ModelThread.FRAME_DELAY, (ActionEvent e) -> {
+            deliverEvents();
+        });
+        deliveryTimer.setRepeats(false);
+    }
+
+    /**
+     * Adds the given listener, that gets the changes from now on.
+     *
+     * @param listener
+     */
+    void addListener(PuzzlepieceGroupListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes the given listener.
+     *
+     * @param listener
+     */
+    void removeListener(PuzzlepieceGroupListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Posts the given change. It is delivered in the next frame. If nobody
+     * listens, the change is dropped.
+     *
+     * @param event
+     */
+    synchronized void post(PuzzlepieceGroupEvent event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (event.getType() == PuzzlepieceGroupEvent.Type.MOVED
+                || event.getType() == PuzzlepieceGroupEvent.Type.SHUFFLED) {
+            Integer index = moveIndexes.get(event.getGroup());
+
+            if (index != null) {
+                events.set(index, event);
+                return;
+            }
+            moveIndexes.put(event.getGroup(), events.size());
+        }
+        events.add(event);
+
+        // the first change after a delivery waits for the next frame
+        if (events.size() == 1) {
+            long delay = lastDeliveryTime + ModelThread.FRAME_DELAY - System.currentTimeMillis();
+
+            deliveryTimer.setInitialDelay((int) Math.max(0, Math.min(delay, ModelThread.FRAME_DELAY)));
+            deliveryTimer.start();
+        }
+    }
+
+    /**
+     * Delivers all changes, that were posted since the last delivery, to the
+     * listeners.
+     */
+    private void deliverEvents() {
+        List<PuzzlepieceGroupEvent> deliveredEvents;
+
+        synchronized (this) {
+            deliveredEvents = events;
+            events = new ArrayList<>();
+            moveIndexes.clear();
+            lastDeliveryTime = System.currentTimeMillis();
+        }
+        if (deliveredEvents.isEmpty()) {
+            return;
+        }
+        deliveredEvents = Collections.unmodifiableList(deliveredEvents);
+        for (PuzzlepieceGroupListener listener : listeners) {
+            listener.puzzlepieceGroupsChanged(deliveredEvents);
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package jigspuzzle.model.puzzle;
+
+import java.util.List;
+
+/**
+ * A listener for the changes of the puzzlepiece groups of a puzzle.
+ *
+ * @author RoseTec
+ * @see Puzzle#addPuzzlepieceGroupListener(PuzzlepieceGroupListener)
+ */
+public interface PuzzlepieceGroupListener {
+
+    /**
+     * Called on the event dispatch thread with the changes of the groups since
+     * the last call. It is called at most once per frame. Several moves of a
+     * group in one frame are delivered as one move to the last position.
+     *
+     * @param events The changes in the order, in which they happened. The list
+     * cannot be changed.
+     */
+    void puzzlepieceGroupsChanged(List<PuzzlepieceGroupEvent> events);
+
+}
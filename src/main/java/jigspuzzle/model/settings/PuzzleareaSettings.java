@@ -46,12 +46,31 @@ public class PuzzleareaSettings extends Observable implements Savable {
      */
     private boolean playSounds = true;
 
+    /**
+     * The memory in megabytes, that the images of the puzzlepieces may use,
+     * when they are scaled for displaying them.
+     */
+    private int puzzlepieceImageCacheSize = 64;
+
     /**
      * The value, wheather to show a preview of the finished puzzle on the
      * puzzlearea.
      */
     private boolean showPuzzlePreview = false;
 
+    /**
+     * The time in milliseconds, in which the puzzlepieces move to their new
+     * positions, when the puzzle is shuffled. If it is 0, the puzzlepieces are
+     * not animated.
+     */
+    private int shuffleDuration = 500;
+
+    /**
+     * The value, wheather all puzzlepieces should be painted on one canvas,
+     * instead of having one component for every puzzlepiece group.
+     */
+    private boolean useSingleCanvas = false;
+
     /**
      * The number shows in percent, how much of the puzzleare should be used for
      * puzzeling. A number of 0.5 for instance means, that only 50% of the
@@ -178,6 +197,35 @@ public class PuzzleareaSettings extends Observable implements Savable {
         notifyObservers();
     }
 
+    /**
+     * Gets the memory in megabytes, that the images of the puzzlepieces may
+     * use, when they are scaled for displaying them. The least recently
+     * displayed images are removed, when they need more memory.
+     *
+     * @return
+     */
+    public int getPuzzlepieceImageCacheSize() {
+        return puzzlepieceImageCacheSize;
+    }
+
+    /**
+     * Sets the memory in megabytes, that the images of the puzzlepieces may
+     * use, when they are scaled for displaying them. The least recently
+     * displayed images are removed, when they need more memory.
+     *
+     * @param size
+     */
+    public void setPuzzlepieceImageCacheSize(int size) {
+        if (size < 0) {
+            size = 0;
+        }
+        if (puzzlepieceImageCacheSize != size) {
+            puzzlepieceImageCacheSize = size;
+            setChanged();
+            notifyObservers();
+        }
+    }
+
     /**
      * Gets teh value, wheather to show a preview of the puzzle on the
      * puzzlearea.
@@ -200,6 +248,61 @@ public class PuzzleareaSettings extends Observable implements Savable {
         notifyObservers();
     }
 
+    /**
+     * Gets the time in milliseconds, in which the puzzlepieces move to their
+     * new positions, when the puzzle is shuffled. If it is 0, the puzzlepieces
+     * are not animated.
+     *
+     * @return
+     */
+    public int getShuffleDuration() {
+        return shuffleDuration;
+    }
+
+    /**
+     * Sets the time in milliseconds, in which the puzzlepieces move to their
+     * new positions, when the puzzle is shuffled. If it is 0, the puzzlepieces
+     * are not animated.
+     *
+     * @param shuffleDuration
+     */
+    public void setShuffleDuration(int shuffleDuration) {
+        if (shuffleDuration < 0) {
+            shuffleDuration = 0;
+        }
+        if (this.shuffleDuration != shuffleDuration) {
+            this.shuffleDuration = shuffleDuration;
+            setChanged();
+            notifyObservers();
+        }
+    }
+
+    /**
+     * Gets the value, wheather all puzzlepieces should be painted on one
+     * canvas, instead of having one component for every puzzlepiece group. It
+     * is used, when a new puzzle is shown.
+     *
+     * @return
+     */
+    public boolean getUseSingleCanvas() {
+        return useSingleCanvas;
+    }
+
+    /**
+     * Sets the value, wheather all puzzlepieces should be painted on one
+     * canvas, instead of having one component for every puzzlepiece group. It
+     * is used, when a new puzzle is shown.
+     *
+     * @param useSingleCanvas
+     */
+    public void setUseSingleCanvas(boolean useSingleCanvas) {
+        if (this.useSingleCanvas != useSingleCanvas) {
+            this.useSingleCanvas = useSingleCanvas;
+            setChanged();
+            notifyObservers();
+        }
+    }
+
     /**
      * Gets the number in percent, how much of the puzzleare should be used for
      * puzzeling. A number of 0.5 for instance means, that only 50% of the
@@ -256,6 +359,18 @@ public class PuzzleareaSettings extends Observable implements Savable {
                 case "show-puzzle-preview":
                     showPuzzlePreview = Boolean.parseBoolean(node.getTextContent());
                     break;
+                case "shuffle-duration":
+                    try {
+                        shuffleDuration = Math.max(0, Integer.parseInt(node.getTextContent()));
+                    } catch (NumberFormatException ex) {
+                    }
+                    break;
+                case "puzzlepiece-image-cache-size":
+                    try {
+                        puzzlepieceImageCacheSize = Math.max(0, Integer.parseInt(node.getTextContent()));
+                    } catch (NumberFormatException ex) {
+                    }
+                    break;
                 case "monitor-for-fullscreen":
                     try {
                         String[] numbersString = node.getTextContent().split(",");
@@ -270,6 +385,9 @@ public class PuzzleareaSettings extends Observable implements Savable {
                         monitorForFullscreen.add(getDefaultMonitorIndex());
                     }
                     break;
+                case "use-single-canvas":
+                    useSingleCanvas = Boolean.parseBoolean(node.getTextContent());
+                    break;
                 case "used-size-of-puzzleare":
                     try {
                         usedSizeOfPuzzleare = Double.parseDouble(node.getTextContent());
@@ -314,10 +432,22 @@ public class PuzzleareaSettings extends Observable implements Savable {
         tmpElement.setTextContent(txt);
         settingsElement.appendChild(tmpElement);
 
+        tmpElement = doc.createElement("puzzlepiece-image-cache-size");
+        tmpElement.setTextContent(String.valueOf(puzzlepieceImageCacheSize));
+        settingsElement.appendChild(tmpElement);
+
         tmpElement = doc.createElement("show-puzzle-preview");
         tmpElement.setTextContent(String.valueOf(showPuzzlePreview));
         settingsElement.appendChild(tmpElement);
 
+        tmpElement = doc.createElement("shuffle-duration");
+        tmpElement.setTextContent(String.valueOf(shuffleDuration));
+        settingsElement.appendChild(tmpElement);
+
+        tmpElement = doc.createElement("use-single-canvas");
+        tmpElement.setTextContent(String.valueOf(useSingleCanvas));
+        settingsElement.appendChild(tmpElement);
+
         tmpElement = doc.createElement("used-size-of-puzzleare");
         tmpElement.setTextContent(String.valueOf(usedSizeOfPuzzleare));
         settingsElement.appendChild(tmpElement);
@@ -3,7 +3,38 @@ package jigspuzzle.util;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 
@@ -14,6 +45,397 @@ import javax.swing.ImageIcon;
  */
 public class ImageUtil {
 
+    /**
+     * The height of the strips, in which an image is split, when it is
+     * encoded as PNG.
+     *
+     * @see #writePngStrips(java.awt.image.BufferedImage, java.io.DataOutput,
+     * java.util.function.IntConsumer)
+     */
+    private static final int PNG_STRIP_HEIGHT = 256;
+
+    /**
+     * The threads, on which the strips of all images are encoded and decoded.
+     * The pool is created, when it is used first. It has at most one thread
+     * per processor and its threads end, when they are idle.
+     */
+    private static class StripExecutor {
+
+        static final ExecutorService INSTANCE = createStripExecutor();
+
+        private static ExecutorService createStripExecutor() {
+            int threads = Runtime.getRuntime().availableProcessors();
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                    10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "Image strips " + threadNumber.incrementAndGet());
+
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
+    }
+
+    /**
+     * Reads an image, that was written with <code>writePngStrips</code>.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     * @see #writePngStrips(java.awt.image.BufferedImage, java.io.DataOutput,
+     * java.util.function.IntConsumer)
+     */
+    public static BufferedImage readPngStrips(DataInput in) throws IOException {
+        int stripCount = in.readInt();
+        List<ByteBuffer> strips = new ArrayList<>();
+
+        if (stripCount <= 0) {
+            throw new IOException("Invalid image");
+        }
+        for (int i = 0; i < stripCount; i++) {
+            byte[] strip = new byte[in.readInt()];
+
+            in.readFully(strip);
+            strips.add(ByteBuffer.wrap(strip));
+        }
+        return decodePngStrips(strips);
+    }
+
+    /**
+     * Gets the strips of an image, that was written with
+     * <code>writePngStrips</code>, from the given buffer without copying
+     * them. Afterwards the position of the buffer is behind the image.
+     *
+     * @param buffer
+     * @return The PNGs of the strips from top to buttom.
+     * @throws IOException
+     * @see #writePngStrips(java.awt.image.BufferedImage, java.io.DataOutput,
+     * java.util.function.IntConsumer)
+     */
+    public static List<ByteBuffer> slicePngStrips(ByteBuffer buffer) throws IOException {
+        try {
+            int stripCount = buffer.getInt();
+            List<ByteBuffer> strips = new ArrayList<>();
+
+            if (stripCount <= 0) {
+                throw new IOException("Invalid image");
+            }
+            for (int i = 0; i < stripCount; i++) {
+                int length = buffer.getInt();
+
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IOException("Invalid image");
+                }
+                ByteBuffer strip = buffer.slice();
+                strip.limit(length);
+                strips.add(strip);
+                buffer.position(buffer.position() + length);
+            }
+            return strips;
+        } catch (BufferUnderflowException ex) {
+            throw new EOFException();
+        }
+    }
+
+    /**
+     * Writes the given image as PNG to the given stream. The image is split
+     * into strips, that are encoded in parallel. Each strip is a PNG on its
+     * own. The number of strips is written first and then the length and the
+     * bytes of every strip from top to buttom. Every strip is written as soon
+     * as it and all strips above it are encoded.
+     *
+     * @param image
+     * @param out
+     * @param progress Gets the percentage of the written strips, after a strip
+     * was written. Can be <code>null</code>.
+     * @throws IOException
+     * @see #readPngStrips(java.io.DataInput)
+     */
+    public static void writePngStrips(BufferedImage image, DataOutput out, IntConsumer progress) throws IOException {
+        int stripCount = (image.getHeight() + PNG_STRIP_HEIGHT - 1) / PNG_STRIP_HEIGHT;
+        List<Future<byte[]>> strips = new ArrayList<>(stripCount);
+        ExecutorService executor = StripExecutor.INSTANCE;
+
+        try {
+            for (int i = 0; i < stripCount; i++) {
+                int y = i * PNG_STRIP_HEIGHT;
+                int height = Math.min(PNG_STRIP_HEIGHT, image.getHeight() - y);
+
+                strips.add(executor.submit(() -> {
+                    ByteArrayOutputStream png = new ByteArrayOutputStream();
+
+                    if (!ImageIO.write(image.getSubimage(0, y, image.getWidth(), height), "png", png)) {
+                        throw new IOException("Cannot encode image as PNG");
+                    }
+                    return png.toByteArray();
+                }));
+            }
+
+            out.writeInt(stripCount);
+            for (int i = 0; i < stripCount; i++) {
+                byte[] strip = getResult(strips.get(i));
+
+                out.writeInt(strip.length);
+                out.write(strip);
+                if (progress != null) {
+                    progress.accept((i + 1) * 100 / stripCount);
+                }
+            }
+        } finally {
+            // do not encode the remaining strips, if writing failed
+            for (Future<byte[]> strip : strips) {
+                strip.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Writes the given strips of an image, that are already encoded as PNG,
+     * to the given stream in the same format as <code>writePngStrips</code>
+     * does. The strips are written without being decoded and encoded again.
+     *
+     * @param strips The PNGs of the strips from top to buttom.
+     * @param out
+     * @param progress Gets the percentage of the written strips, after a strip
+     * was written. Can be <code>null</code>.
+     * @throws IOException
+     * @see #slicePngStrips(java.nio.ByteBuffer)
+     */
+    public static void writePngStrips(List<ByteBuffer> strips, DataOutput out, IntConsumer progress) throws IOException {
+        out.writeInt(strips.size());
+        for (int i = 0; i < strips.size(); i++) {
+            ByteBuffer strip = strips.get(i).duplicate();
+            byte[] bytes = new byte[strip.remaining()];
+
+            strip.get(bytes);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            if (progress != null) {
+                progress.accept((i + 1) * 100 / strips.size());
+            }
+        }
+    }
+
+    /**
+     * Decodes an image, that was split into strips and encoded as PNG. The
+     * strips are decoded in parallel directly into the resulting image.
+     *
+     * @param strips The PNGs of the strips from top to buttom.
+     * @return
+     * @throws IOException
+     * @see #readPngStrips(java.io.DataInput)
+     */
+    public static BufferedImage decodePngStrips(List<ByteBuffer> strips) throws IOException {
+        BufferedImage image = createImageForPngStrips(strips);
+
+        getResult(decodePngStrips(strips, image, null));
+        return image;
+    }
+
+    /**
+     * Decodes an image, that was split into strips and encoded as PNG, in the
+     * background. The strips are decoded in parallel directly into the given
+     * image.
+     *
+     * @param strips The PNGs of the strips from top to buttom.
+     * @param image The image, that was created for the strips.
+     * @param stripDecoded Gets the area of the image, after a strip was decoded
+     * into it. It is called on the thread, that decoded the strip. Can be
+     * <code>null</code>.
+     * @return A future, that is done, when all strips are decoded. It fails
+     * with an <code>UncheckedIOException</code>, if a strip cannot be decoded.
+     * @throws IOException
+     * @see #createImageForPngStrips(java.util.List)
+     */
+    public static CompletableFuture<Void> decodePngStrips(List<ByteBuffer> strips, BufferedImage image, Consumer<Rectangle> stripDecoded) throws IOException {
+        int[] stripY = getPngStripsY(strips);
+        CompletableFuture<?>[] results = new CompletableFuture<?>[strips.size()];
+        ExecutorService executor = StripExecutor.INSTANCE;
+
+        for (int i = 0; i < strips.size(); i++) {
+            ByteBuffer strip = strips.get(i);
+            int y = stripY[i];
+
+            results[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    ImageReader reader = createReader(strip);
+                    Rectangle area;
+
+                    try {
+                        ImageReadParam param = reader.getDefaultReadParam();
+
+                        param.setDestination(image);
+                        param.setDestinationOffset(new Point(0, y));
+                        area = new Rectangle(0, y, reader.getWidth(0), reader.getHeight(0));
+                        reader.read(0, param);
+                    } finally {
+                        reader.dispose();
+                    }
+                    if (stripDecoded != null) {
+                        stripDecoded.accept(area);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(results);
+    }
+
+    /**
+     * Creates an empty image, in which the given strips can be decoded. Only
+     * the sizes of the strips are read.
+     *
+     * @param strips The PNGs of the strips from top to buttom.
+     * @return
+     * @throws IOException
+     * @see #decodePngStrips(java.util.List, java.awt.image.BufferedImage,
+     * java.util.function.Consumer)
+     */
+    public static BufferedImage createImageForPngStrips(List<ByteBuffer> strips) throws IOException {
+        int width = 0;
+        int height = 0;
+        ImageTypeSpecifier type = null;
+
+        for (int i = 0; i < strips.size(); i++) {
+            ImageReader reader = createReader(strips.get(i));
+
+            try {
+                if (i == 0) {
+                    width = reader.getWidth(0);
+                    type = reader.getImageTypes(0).next();
+                } else if (width != reader.getWidth(0)) {
+                    throw new IOException("Strips of the image have different widths");
+                }
+                height += reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+        if (type == null) {
+            throw new IOException("Image has no strips");
+        }
+        return type.createBufferedImage(width, height);
+    }
+
+    /**
+     * Gets the y-coordinates of the given strips in their image.
+     */
+    private static int[] getPngStripsY(List<ByteBuffer> strips) throws IOException {
+        int[] stripY = new int[strips.size()];
+        int height = 0;
+
+        for (int i = 0; i < strips.size(); i++) {
+            ImageReader reader = createReader(strips.get(i));
+
+            try {
+                stripY[i] = height;
+                height += reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+        return stripY;
+    }
+
+    /**
+     * Creates a reader for the given image. The position of the buffer is not
+     * changed.
+     */
+    private static ImageReader createReader(ByteBuffer bytes) throws IOException {
+        ImageInputStream input = new MemoryCacheImageInputStream(new ByteBufferInputStream(bytes.duplicate()));
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+
+        if (!readers.hasNext()) {
+            throw new IOException("No image");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    /**
+     * Waits for the result of the given task.
+     */
+    private static <T> T getResult(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * Reads an image from the given file. If the image is bigger than the
+     * given size in both directions, only every n-th pixel of it is read, so
+     * that the image is still at least as big as the given size in one
+     * direction. This way huge images can be read, without ever having the
+     * full image in memory.
+     *
+     * @param file
+     * @param maxSize The size, in which the image should fit. Can be
+     * <code>null</code>, if the image should be read completely.
+     * @return
+     * @throws IOException Will be thrown, when the file cannot be read or is
+     * no image.
+     */
+    public static BufferedImage readImage(File file, Dimension maxSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                throw new IOException("Cannot read file: " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+
+            if (!readers.hasNext()) {
+                throw new IOException("No image: " + file);
+            }
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = getSubsampling(reader.getWidth(0), reader.getHeight(0), maxSize);
+
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Calculates, how many pixels can be skipped in an image of the given
+     * size, so that it is still at least as big as the given size in one
+     * direction.
+     *
+     * @param width
+     * @param height
+     * @param maxSize
+     * @return
+     */
+    static int getSubsampling(int width, int height, Dimension maxSize) {
+        if (maxSize == null || maxSize.width <= 0 || maxSize.height <= 0) {
+            return 1;
+        }
+        int subsampling = Math.max(width / maxSize.width, height / maxSize.height);
+
+        return Math.max(1, subsampling);
+    }
+
     /**
      * Transforms a Image into a BufferedImage.
      *
@@ -0,0 +1,223 @@
+package jigspuzzle.util;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A class that provides methods for placing rectangles in areas, so that they
+ * do not overlap.
+ *
+ * @author RoseTec
+ */
+public class PlacementUtil {
+
+    /**
+     * A row of rectangles in an area.
+     */
+    private static class Shelf {
+
+        final Rectangle area;
+
+        final int y;
+
+        int width = 0;
+
+        int height = 0;
+
+        final List<Integer> indexes = new ArrayList<>();
+
+        Shelf(Rectangle area, int y) {
+            this.area = area;
+            this.y = y;
+        }
+
+    }
+
+    /**
+     * Places rectangles with the given sizes randomly in the given areas, so
+     * that they do not overlap. The rectangles are packed in rows and the free
+     * space is spread between the rows and between the rectangles in a row.
+     *
+     * When there is not enough space, the spacing between the rectangles is
+     * left out. The rectangles, that still do not fit, are placed randomly in
+     * an area, where they overlap others. If no area is given, all rectangles
+     * are placed at (0,0).
+     *
+     * This takes O(n log n) for n rectangles.
+     *
+     * @param sizes The sizes of the rectangles.
+     * @param areas The areas, in which the rectangles have to lay completely.
+     * @param spacing The space, that should be kept free between two
+     * rectangles.
+     * @param random
+     * @return The position of the upper left corner for every rectangle in the
+     * order of the sizes.
+     */
+    public static Point[] placeRectangles(Dimension[] sizes, Rectangle[] areas, Dimension spacing, Random random) {
+        Point[] positions = new Point[sizes.length];
+        List<Integer> order = new ArrayList<>(sizes.length);
+
+        if (areas.length == 0) {
+            for (int i = 0; i < sizes.length; i++) {
+                positions[i] = new Point(0, 0);
+            }
+            return positions;
+        }
+
+        // the rows are packed best with the highest rectangles first, equal
+        // rectangles are in random order
+        for (int i = 0; i < sizes.length; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, random);
+        order.sort((Integer i1, Integer i2) -> sizes[i2].height - sizes[i1].height);
+
+        // use less spacing, until all rectangles fit
+        Dimension[] spacings = new Dimension[]{
+            spacing,
+            new Dimension(spacing.width / 2, spacing.height / 2),
+            new Dimension(0, 0)};
+
+        for (Dimension s : spacings) {
+            Arrays.fill(positions, null);
+            if (packShelves(sizes, order, areas, s, random, positions)) {
+                return positions;
+            }
+        }
+
+        // place the remaining rectangles anywhere
+        for (int i = 0; i < sizes.length; i++) {
+            if (positions[i] == null) {
+                Rectangle area = areas[random.nextInt(areas.length)];
+
+                positions[i] = new Point(
+                        area.x + random.nextInt(Math.max(1, area.width - sizes[i].width + 1)),
+                        area.y + random.nextInt(Math.max(1, area.height - sizes[i].height + 1)));
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Packs the rectangles in the given order in rows into the areas and
+     * spreads them over the free space.
+     *
+     * @return <code>true</code>, if all rectangles were placed. Otherwise the
+     * positions of the rectangles, that do not fit, are <code>null</code>.
+     */
+    private static boolean packShelves(Dimension[] sizes, List<Integer> order, Rectangle[] areas, Dimension spacing, Random random, Point[] positions) {
+        List<Shelf> shelves = new ArrayList<>();
+        Shelf shelf = null;
+        int areaIndex = 0;
+        boolean allPlaced = true;
+
+        for (int index : order) {
+            Dimension size = sizes[index];
+
+            if (!fitsInAnyArea(size, areas)) {
+                // do not give up the other areas for this rectangle
+                allPlaced = false;
+                continue;
+            }
+            while (areaIndex < areas.length) {
+                Rectangle area = areas[areaIndex];
+
+                if (shelf != null && shelf.width + size.width <= area.width
+                        && shelf.y + size.height <= area.y + area.height) {
+                    break;
+                }
+
+                // start a new row below the last one
+                int y = shelf == null ? area.y : shelf.y + shelf.height + spacing.height;
+
+                if (size.width <= area.width && y + size.height <= area.y + area.height) {
+                    shelf = new Shelf(area, y);
+                    shelves.add(shelf);
+                    break;
+                }
+
+                // continue in the next area
+                shelf = null;
+                areaIndex++;
+            }
+            if (areaIndex >= areas.length) {
+                allPlaced = false;
+                continue;
+            }
+            positions[index] = new Point(shelf.area.x + shelf.width, shelf.y);
+            shelf.indexes.add(index);
+            shelf.width += size.width + spacing.width;
+            shelf.height = Math.max(shelf.height, size.height);
+        }
+
+        // spread the rows over the free space below them
+        for (int first = 0; first < shelves.size();) {
+            Rectangle area = shelves.get(first).area;
+            int last = first;
+
+            while (last + 1 < shelves.size() && shelves.get(last + 1).area == area) {
+                last++;
+            }
+            Shelf lastShelf = shelves.get(last);
+            int rowCount = last - first + 1;
+            int freeHeight = area.y + area.height - lastShelf.y - lastShelf.height;
+
+            for (int row = 0; row < rowCount; row++) {
+                Shelf s = shelves.get(first + row);
+                int offsetY = spread(freeHeight, row, rowCount, random);
+                int freeWidth = area.width - s.width + spacing.width;
+
+                for (int column = 0; column < s.indexes.size(); column++) {
+                    int index = s.indexes.get(column);
+                    int offsetX = spread(freeWidth, column, s.indexes.size(), random);
+
+                    positions[index].translate(offsetX,
+                            offsetY + random.nextInt(s.height - sizes[index].height + 1));
+                }
+            }
+            first = last + 1;
+        }
+        return allPlaced;
+    }
+
+    /**
+     * Checks, whether a rectangle with the given size fits in at least one of
+     * the given areas.
+     *
+     * @param size
+     * @param areas
+     * @return
+     */
+    private static boolean fitsInAnyArea(Dimension size, Rectangle[] areas) {
+        for (Rectangle area : areas) {
+            if (size.width <= area.width && size.height <= area.height) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets a random offset for the given element, so that the free space is
+     * spread evenly between all elements and their order is kept.
+     *
+     * @param freeSpace
+     * @param element
+     * @param elementCount
+     * @param random
+     * @return
+     */
+    private static int spread(int freeSpace, int element, int elementCount, Random random) {
+        int start = (int) ((long) freeSpace * element / elementCount);
+        int end = (int) ((long) freeSpace * (element + 1) / elementCount);
+
+        return start + random.nextInt(end - start + 1);
+    }
+
+}
@@ -12,12 +12,15 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Locale;
 import java.util.Observable;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JComponent;
+import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import jigspuzzle.JigSPuzzle;
 import jigspuzzle.controller.PuzzleController;
 import jigspuzzle.controller.SettingsController;
 import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.model.puzzle.PuzzleSnapshot;
 import jigspuzzle.model.puzzle.PuzzlepieceGroup;
 import jigspuzzle.model.settings.PuzzleareaSettings;
 import jigspuzzle.util.ImageUtil;
@@ -476,9 +479,7 @@ public class DesktopPuzzleMainWindow extends javax.swing.JFrame {
     }//GEN-LAST:event_jMenuItem1ActionPerformed
 
     private void jMenuItem4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem4ActionPerformed
-        new Thread(() -> {
-            PuzzleController.getInstance().shufflePuzzlepieces();
-        }).start();
+        PuzzleController.getInstance().shufflePuzzlepieces();
     }//GEN-LAST:event_jMenuItem4ActionPerformed
 
     private void jMenuItem3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem3ActionPerformed
@@ -499,13 +500,48 @@ public class DesktopPuzzleMainWindow extends javax.swing.JFrame {
             selectedFile = lastSavedFile;
         }
 
+        // save a snapshot of the puzzle in the background, so the user can go
+        // on puzzling, while it is written
+        PuzzleSnapshot snapshot;
+
         try {
-            PuzzleController.getInstance().savePuzzle(selectedFile);
+            snapshot = PuzzleController.getInstance().createPuzzleSnapshot();
         } catch (IOException ex) {
             new ErrorMessageDialog(SettingsController.getInstance().getLanguageText(1, 51),
                     SettingsController.getInstance().getLanguageText(1, 52),
                     ex.getMessage()).showDialog(this);
+            return;
         }
+        SwingWorker<Void, Void> saver = new SwingWorker<Void, Void>() {
+
+            @Override
+            protected Void doInBackground() throws IOException {
+                PuzzleController.getInstance().savePuzzle(selectedFile, snapshot, this::setProgress);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                jMenuItem3.setEnabled(PuzzleController.getInstance().isPuzzleAcive());
+                setTitle(SettingsController.getInstance().getLanguageText(1, 1));
+                try {
+                    get();
+                } catch (InterruptedException ex) {
+                } catch (ExecutionException ex) {
+                    new ErrorMessageDialog(SettingsController.getInstance().getLanguageText(1, 51),
+                            SettingsController.getInstance().getLanguageText(1, 52),
+                            ex.getCause().getMessage()).showDialog(DesktopPuzzleMainWindow.this);
+                }
+            }
+        };
+
+        saver.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                setTitle(SettingsController.getInstance().getLanguageText(1, 1) + " (" + event.getNewValue() + " %)");
+            }
+        });
+        jMenuItem3.setEnabled(false);
+        saver.execute();
     }//GEN-LAST:event_jMenuItem3ActionPerformed
 
     private void jMenuItem2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem2ActionPerformed
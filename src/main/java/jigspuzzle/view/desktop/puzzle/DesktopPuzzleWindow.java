@@ -169,6 +169,9 @@ public class DesktopPuzzleWindow implements IPuzzleWindow {
      * If the view is allready on fullscreen, the fullscreen is exited.
      */
     void triggerFullscreen() {
+        // the puzzle is shown on other screens now
+        SettingsController.getInstance().invalidatePuzzleareaGeometry();
+
         // position windows
         if (isFullscreenActive()) {
             for (DesktopPuzzleMainWindow w : fullscreenPuzzleWindows) {
@@ -1,6 +1,7 @@
 package jigspuzzle.view.desktop.puzzle;
 
 import java.awt.BasicStroke;
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.EventQueue;
 import java.awt.Graphics;
@@ -13,7 +14,11 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
 import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Observable;
+import java.util.Observer;
 import javax.swing.JPanel;
 import jigspuzzle.controller.SettingsController;
 import jigspuzzle.model.puzzle.ConnectorPosition;
@@ -21,6 +26,7 @@ import jigspuzzle.model.puzzle.ConnectorShapeFactory;
 import jigspuzzle.model.puzzle.Puzzlepiece;
 import jigspuzzle.model.puzzle.PuzzlepieceConnection;
 import jigspuzzle.model.puzzle.PuzzlepieceGroup;
+import jigspuzzle.model.puzzle.PuzzlepieceGroupEvent;
 
 /**
  * This is a class for displaying a puzzlepiece group, that contains out of
@@ -43,28 +49,73 @@ import jigspuzzle.model.puzzle.PuzzlepieceGroup;
  */
 public abstract class DrawablePuzzlepieceGroup extends JPanel {
 
+    /**
+     * The maximal distance of the flattened connectors to their curves.
+     */
+    private static final double CONNECTOR_FLATNESS = 0.25;
+
+    /**
+     * The number of sizes of puzzlepieces, for which the areas of the
+     * connectors are cached.
+     */
+    private static final int CONNECTOR_AREAS_SIZE_COUNT = 4;
+
+    /**
+     * The areas of the connectors for the latest used sizes of puzzlepieces.
+     * There are only a few different areas for one size, so they are shared
+     * by all puzzlepieces.
+     *
+     * @see #getConnectorArea(jigspuzzle.model.puzzle.ConnectorPosition,
+     * jigspuzzle.model.puzzle.Puzzlepiece)
+     */
+    private static final Map<Dimension, Map<ConnectorKey, Area>> CONNECTOR_AREAS = new LinkedHashMap<Dimension, Map<ConnectorKey, Area>>(8, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Dimension, Map<ConnectorKey, Area>> eldest) {
+            return size() > CONNECTOR_AREAS_SIZE_COUNT;
+        }
+
+    };
+
     private final PuzzlepieceGroup piecegroup;
 
+    /**
+     * The mask of the points, that are hit in this view. It is created from the
+     * outlines of the puzzlepieces and is <code>null</code>, if it has to be
+     * created again.
+     */
+    private volatile HitMask hitMask;
+
+    /**
+     * Repaints this view, when the settings for a puzzlepiece have changed.
+     * The cached images are removed once for all views.
+     *
+     * @see PuzzleScene
+     */
+    private final Observer puzzleSettingsObserver = (Observable o, Object arg) -> {
+        hitMask = null;
+        this.repaint();
+    };
+
     public DrawablePuzzlepieceGroup(PuzzlepieceGroup piecegroup) {
         this.piecegroup = piecegroup;
 
         this.setOpaque(false);
 
-        // move this piece when the model changed
-        piecegroup.addObserver((Observable o, Object arg) -> {
-            if (piecegroup.isInPuzzle()) {
-                updateViewLocation();
-                this.updateViewSize();
-            }
-        });
         EventQueue.invokeLater(() -> {
             updateViewLocation();
         });
 
         // repaint this puzzlepiece when the settings for a puzzlepiece have changed
-        SettingsController.getInstance().addPuzzleSettingsObserver((Observable o, Object arg) -> {
-            this.repaint();
-        });
+        SettingsController.getInstance().addPuzzleSettingsObserver(puzzleSettingsObserver);
+    }
+
+    /**
+     * Stops observing the settings. It has to be called, when this view is
+     * not shown anymore, so that it can be freed.
+     */
+    void dispose() {
+        SettingsController.getInstance().deletePuzzleSettingsObserver(puzzleSettingsObserver);
     }
 
     /**
@@ -78,6 +129,38 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
         return this.piecegroup == group;
     }
 
+    /**
+     * Updates this view to the given change of its puzzlepiece group. The
+     * changes are not observed by this view itself, but given to it by the
+     * component, that listens to the changes of all groups in the puzzle.
+     *
+     * @param event
+     * @see jigspuzzle.model.puzzle.Puzzle#addPuzzlepieceGroupListener(jigspuzzle.model.puzzle.PuzzlepieceGroupListener)
+     */
+    public void puzzlepieceGroupChanged(PuzzlepieceGroupEvent event) {
+        switch (event.getType()) {
+            case IMAGE_CHANGED:
+                // only the images changed and can be painted now, the outlines stay the same
+                PuzzlepieceImageCache.getInstance().remove(piecegroup.getPuzzlepieces());
+                this.repaint();
+                break;
+            case MERGED:
+                // the sprites depend on the puzzlepieces in the group
+                PuzzlepieceImageCache.getInstance().remove(piecegroup.getPuzzlepieces());
+                hitMask = null;
+                if (piecegroup.isInPuzzle()) {
+                    updateViewBounds();
+                }
+                break;
+            case MOVED:
+            case SHUFFLED:
+                if (piecegroup.isInPuzzle()) {
+                    updateViewBounds();
+                }
+                break;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -102,76 +185,8 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
             return false;
         }
 
-        // 1. simple test: test, if point is in no puzzlepiece (puzzlepiece-size = puzzlepiece + connector_size)
-        // TODO: Is this simply test needed? Do we ever break in this code???
-        boolean puzzlepieceHit = false;
-
-        for (Puzzlepiece puzzlepiece : piecegroup.getPuzzlepieces()) {
-            int xStart = getXStartPositionOfPuzzlepiece(puzzlepiece);
-            int yStart = getYStartPositionOfPuzzlepiece(puzzlepiece);
-            int pieceX = xStart - getConnectionsSizeLeftRight();
-            int pieceY = yStart - getConnectionsSizeTopButtom();
-
-            if (0 < pieceX && pieceX < getPuzzlepieceWidth() + 2 * getConnectionsSizeLeftRight()
-                    || 0 < pieceY || pieceY < getPuzzlepieceHeight() + 2 * getConnectionsSizeTopButtom()) {
-                puzzlepieceHit = true;
-                break;
-            }
-        }
-        if (!puzzlepieceHit) {
-            return false;
-        }
-
-        // the main test: test on puzzlepieces, if the points hits the puzzlepiece
-        puzzlepieceHit = false;
-
-        for (Puzzlepiece puzzlepiece : piecegroup.getPuzzlepieces()) {
-            // A check for the correct puzzlepiece path is done below.
-            // 1st: we only need to consider the puzzlepieces in the area around the coordinates given.
-            // So the (costly) puzzlepiece path check is not done for teh puzzlepieces that are not in
-            // the area around the cordinates.
-            int xStart = getXStartPositionOfPuzzlepiece(puzzlepiece);
-            int yStart = getYStartPositionOfPuzzlepiece(puzzlepiece);
-            int pieceX = xStart - getConnectionsSizeLeftRight();
-            int pieceY = yStart - getConnectionsSizeTopButtom();
-
-            if (pieceX < x && x < pieceX + getPuzzlepieceWidth() + 2 * getConnectionsSizeLeftRight()
-                    && pieceY < y || y < pieceY + getPuzzlepieceHeight() + 2 * getConnectionsSizeTopButtom()) {
-                // this piece is interesting, because it is in the area of the coordinates
-            } else {
-                // not interesting puzzlepiece => do not do a check, because it is to far away to
-                // contain the coordinates
-                continue;
-            }
-
-            // real check for the correct puzzlepiece path.
-            Rectangle imgRect = new Rectangle(getXStartPositionOfPuzzlepiece(puzzlepiece),
-                    getYStartPositionOfPuzzlepiece(puzzlepiece),
-                    getPuzzlepieceWidth(),
-                    getPuzzlepieceHeight());
-            Area area = new Area(imgRect);
-
-            for (ConnectorPosition direction : ConnectorPosition.values()) {
-                PuzzlepieceConnection connection = puzzlepiece.getConnectorForDirection(direction);
-
-                if (connection != null) {
-                    GeneralPath connectorPath = getTransformedShapeOnConnectorPosition(direction, puzzlepiece);
-
-                    if (puzzlepiece.isOutPieceInDirection(direction)) {
-                        area.add(new Area(connectorPath));
-                    } else {
-                        area.subtract(new Area(connectorPath));
-                    }
-                }
-            }
-
-            if (area.contains(x, y)) {
-                puzzlepieceHit = true;
-                break;
-            }
-        }
-
-        return puzzlepieceHit;
+        // the puzzlepiece is hit, if the point is inside the outline of a puzzlepiece
+        return getHitMask().contains(x, y);
     }
 
     /**
@@ -192,6 +207,33 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
         return getPuzzlepieceHeight() / 2;
     }
 
+    /**
+     * Gets the mask of the points, that are hit in this view. The mask is
+     * created, if it does not fit to the current size of the puzzlepieces.
+     *
+     * The mask is created from the outlines of the puzzlepieces and not from
+     * their pixels, so that also puzzlepieces, whose images are still decoded
+     * or transparent, can be hit.
+     *
+     * @return
+     */
+    private HitMask getHitMask() {
+        HitMask mask = hitMask;
+        int width = getWidthOfThisGroup();
+        int height = getHeightOfThisGroup();
+
+        if (mask == null || mask.width != width || mask.height != height) {
+            mask = new HitMask(width, height);
+            if (getPuzzlepieceWidth() > 0 && getPuzzlepieceHeight() > 0) {
+                for (Puzzlepiece puzzlepiece : piecegroup.getPuzzlepieces()) {
+                    mask.add(createOutline(puzzlepiece));
+                }
+            }
+            hitMask = mask;
+        }
+        return mask;
+    }
+
     /**
      * Gets the height of this puzzlepiecegroup view
      *
@@ -277,27 +319,60 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
     }
 
     /**
-     * Gets a new shap out of the shape from the given puzzlepiece, that is
-     * transformed in the given position of the puzzlepiece.
+     * Gets the area of the connector of the given puzzlepiece in the given
+     * position. The area is in the coordinates of the puzzlepiece, that means
+     * (0,0) is the point, where the puzzlepiece starts without its connectors.
+     *
+     * The areas are cached for the current size of the puzzlepieces and must
+     * not be changed.
      *
      * @param position
      * @param puzzlepiece
      * @return
+     * @see #getXStartPositionOfPuzzlepiece(jigspuzzle.model.puzzle.Puzzlepiece)
+     * @see #getYStartPositionOfPuzzlepiece(jigspuzzle.model.puzzle.Puzzlepiece)
      */
-    private GeneralPath getTransformedShapeOnConnectorPosition(ConnectorPosition position, Puzzlepiece puzzlepiece) {
-        int shapeSize = 100; // each shape has a size of 100 x 100
-
-        GeneralPath gp = new GeneralPath(getShapeOnConnectorPosition(position, puzzlepiece));
-        AffineTransform af;
-
-        // get position of puzzlepiece in the group
-        int xStart = piecegroup.getXPositionOfPieceInGroup(puzzlepiece) * getPuzzlepieceWidth();
-        int yStart = piecegroup.getYPositionOfPieceInGroup(puzzlepiece) * getPuzzlepieceHeight();
+    private Area getConnectorArea(ConnectorPosition position, Puzzlepiece puzzlepiece) {
+        Shape shape = getShapeOnConnectorPosition(position, puzzlepiece);
+        boolean outConnector = puzzlepiece.isOutPieceInDirection(position);
+        Dimension puzzlepieceSize = new Dimension(getPuzzlepieceWidth(), getPuzzlepieceHeight());
+
+        synchronized (CONNECTOR_AREAS) {
+            Map<ConnectorKey, Area> areas = CONNECTOR_AREAS.get(puzzlepieceSize);
+            ConnectorKey key = new ConnectorKey(shape, position, outConnector);
+            Area area;
+
+            if (areas == null) {
+                areas = new HashMap<>();
+                CONNECTOR_AREAS.put(puzzlepieceSize, areas);
+            }
+            area = areas.get(key);
+            if (area == null) {
+                area = createConnectorArea(shape, position, outConnector);
+                areas.put(key, area);
+            }
+            return area;
+        }
+    }
 
-        af = AffineTransform.getTranslateInstance(getConnectionsSizeLeftRight(), getConnectionsSizeTopButtom());
+    /**
+     * Creates the area of the given shape, that is transformed in the given
+     * position of a puzzlepiece. The area is in the coordinates of the
+     * puzzlepiece and its curves are flattened.
+     *
+     * @param shape
+     * @param position
+     * @param outConnector Whether the puzzlepiece is the
+     * 'out-connector'-puzzlepiece.
+     * @return
+     * @see #getConnectorArea(jigspuzzle.model.puzzle.ConnectorPosition,
+     * jigspuzzle.model.puzzle.Puzzlepiece)
+     */
+    private Area createConnectorArea(Shape shape, ConnectorPosition position, boolean outConnector) {
+        int shapeSize = 100; // each shape has a size of 100 x 100
 
-        // move the connection to the position of the puzzlepiece
-        af.translate(xStart, yStart);
+        GeneralPath gp = new GeneralPath();
+        AffineTransform af = new AffineTransform();
 
         // this is left -> do nothing for left
         if (position.equals(ConnectorPosition.LEFT)) {
@@ -334,17 +409,17 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
         }
 
         // consider also out-conections and mirror it outside
-        if (puzzlepiece.isOutPieceInDirection(position)) {
+        if (outConnector) {
             af.scale(-1, 1);
         }
 
         // scale the connection to the image size
         af.scale(getPuzzlepieceWidth() / (double) shapeSize, getPuzzlepieceHeight() / (double) shapeSize);
 
-        // apply transform
-        gp.transform(af);
+        // apply transform and flatten the curves
+        gp.append(shape.getPathIterator(af, CONNECTOR_FLATNESS), false);
 
-        return gp;
+        return new Area(gp);
     }
 
     /**
@@ -390,13 +465,24 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
 
-        g2.setStroke(new BasicStroke((float) 1.1));
         for (Puzzlepiece puzzlepiece : piecegroup.getPuzzlepieces()) {
             // paint puzzlepiece
             paintPiece(puzzlepiece, g2);
         }
     }
 
+    /**
+     * Updates the location and the size of this view to the puzzlepiece-model
+     * at once. So the view is moved with one change of its bounds and Swing
+     * repaints the old and the new bounds together.
+     */
+    protected void updateViewBounds() {
+        int x = piecegroup.getX() - getPuzzleareaStart().x;
+        int y = piecegroup.getY() - getPuzzleareaStart().y;
+
+        setBounds(x - getConnectionsSizeLeftRight(), y - getConnectionsSizeTopButtom(), getWidthOfThisGroup(), getHeightOfThisGroup());
+    }
+
     /**
      * Updates the view of this puzzlepiece to the given size of the
      * puzzlepiece-model.
@@ -417,13 +503,13 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
     }
 
     /**
-     * Paints one single puzzlepiece on the given graphics
+     * Paints one single puzzlepiece on the given graphics. The puzzlepiece is
+     * drawn from its sprite.
      *
      * @param puzzlepiece
      * @param g2
      */
     private void paintPiece(Puzzlepiece puzzlepiece, Graphics2D g2) {
-        BufferedImage img = puzzlepiece.getImage();
         int puzzlepieceWidth = getPuzzlepieceWidth();
         int puzzlepieceHeight = getPuzzlepieceHeight();
 
@@ -439,35 +525,129 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
             return;
         }
 
+        if (puzzlepieceWidth <= 0 || puzzlepieceHeight <= 0) {
+            return;
+        }
+        BufferedImage sprite = PuzzlepieceImageCache.getInstance().getSprite(puzzlepiece, puzzlepieceWidth, puzzlepieceHeight, this::createSprite);
+
+        g2.drawImage(sprite, xStart, yStart, null);
+    }
+
+    /**
+     * Creates the outline of the given puzzlepiece with its connectors in the
+     * coordinates of this view. The outline contains the points, that are
+     * painted for the puzzlepiece.
+     *
+     * @param puzzlepiece
+     * @return
+     */
+    private Area createOutline(Puzzlepiece puzzlepiece) {
+        int xStart = piecegroup.getXPositionOfPieceInGroup(puzzlepiece) * getPuzzlepieceWidth();
+        int yStart = piecegroup.getYPositionOfPieceInGroup(puzzlepiece) * getPuzzlepieceHeight();
+        Rectangle imgRect = new Rectangle(xStart + getConnectionsSizeLeftRight(), yStart + getConnectionsSizeTopButtom(), getPuzzlepieceWidth(), getPuzzlepieceHeight());
+        AffineTransform toPuzzlepiece = AffineTransform.getTranslateInstance(imgRect.x, imgRect.y);
+        Area outline = new Area(imgRect);
+
+        for (ConnectorPosition position : ConnectorPosition.values()) {
+            if (!isConnectorShown(puzzlepiece, position)) {
+                continue;
+            }
+            Area connectorArea = getConnectorArea(position, puzzlepiece).createTransformedArea(toPuzzlepiece);
+
+            if (puzzlepiece.isInPieceInDirection(position)) {
+                outline.subtract(connectorArea);
+            } else {
+                outline.add(connectorArea);
+            }
+        }
+        return outline;
+    }
+
+    /**
+     * Checks, whether the connector of the given puzzlepiece in the given
+     * position is shown. It is not shown, if there is no connection or if the
+     * other puzzlepiece of the connection is in the same group.
+     */
+    private boolean isConnectorShown(Puzzlepiece puzzlepiece, ConnectorPosition position) {
+        PuzzlepieceConnection connection = puzzlepiece.getConnectorForDirection(position);
+
+        if (connection == null) {
+            return false;
+        }
+        return !((puzzlepiece.isInPieceInDirection(position) && piecegroup.isPuzzlepieceContained(connection.getOutPuzzlepiece()))
+                || (puzzlepiece.isOutPieceInDirection(position) && piecegroup.isPuzzlepieceContained(connection.getInPuzzlepiece())));
+    }
+
+    /**
+     * Renders the sprite of the given puzzlepiece. The sprite contains the
+     * puzzlepiece and its connectors and is transparent outside of them.
+     *
+     * @param puzzlepiece
+     * @return
+     */
+    private BufferedImage createSprite(Puzzlepiece puzzlepiece) {
+        BufferedImage sprite = new BufferedImage(getPuzzlepieceWidth() + 2 * getConnectionsSizeLeftRight(),
+                getPuzzlepieceHeight() + 2 * getConnectionsSizeTopButtom(),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = sprite.createGraphics();
+
+        try {
+            // render the puzzlepiece on its position in the group
+            int xStart = piecegroup.getXPositionOfPieceInGroup(puzzlepiece) * getPuzzlepieceWidth();
+            int yStart = piecegroup.getYPositionOfPieceInGroup(puzzlepiece) * getPuzzlepieceHeight();
+
+            g2.translate(-xStart, -yStart);
+            g2.setClip(xStart, yStart, sprite.getWidth(), sprite.getHeight());
+            g2.setStroke(new BasicStroke((float) 1.1));
+            renderPiece(puzzlepiece, g2);
+        } finally {
+            g2.dispose();
+        }
+        return sprite;
+    }
+
+    /**
+     * Renders one single puzzlepiece with its connectors on the given graphics
+     *
+     * @param puzzlepiece
+     * @param g2
+     */
+    private void renderPiece(Puzzlepiece puzzlepiece, Graphics2D g2) {
+        PuzzlepieceImageCache imageCache = PuzzlepieceImageCache.getInstance();
+        int puzzlepieceWidth = getPuzzlepieceWidth();
+        int puzzlepieceHeight = getPuzzlepieceHeight();
+
+        // get position of puzzlepiece in the group
+        int xStart = piecegroup.getXPositionOfPieceInGroup(puzzlepiece) * puzzlepieceWidth;
+        int yStart = piecegroup.getYPositionOfPieceInGroup(puzzlepiece) * puzzlepieceHeight;
+
         // draw the Connections to other puzzlepiecs
         PuzzlepieceConnection connection;
         Rectangle imgRect;
         Area area;
-        GeneralPath gp;
+        Area connectorArea;
+        AffineTransform toPuzzlepiece;
 
         imgRect = new Rectangle(xStart + getConnectionsSizeLeftRight(), yStart + getConnectionsSizeTopButtom(), puzzlepieceWidth, puzzlepieceHeight);
         area = new Area(imgRect);
+        toPuzzlepiece = AffineTransform.getTranslateInstance(imgRect.x, imgRect.y);
         for (ConnectorPosition position : ConnectorPosition.values()) {
-            connection = puzzlepiece.getConnectorForDirection(position);
-            if (connection == null) {
-                continue;
-            }
             // don't paint any shape, if the other piece of the connection is in the same group as this puzzlepiece
-            if ((puzzlepiece.isInPieceInDirection(position) && piecegroup.isPuzzlepieceContained(connection.getOutPuzzlepiece()))
-                    || (puzzlepiece.isOutPieceInDirection(position) && piecegroup.isPuzzlepieceContained(connection.getInPuzzlepiece()))) {
+            if (!isConnectorShown(puzzlepiece, position)) {
                 continue;
             }
+            connection = puzzlepiece.getConnectorForDirection(position);
 
             // update piece
-            gp = getTransformedShapeOnConnectorPosition(position, puzzlepiece);
+            connectorArea = getConnectorArea(position, puzzlepiece).createTransformedArea(toPuzzlepiece);
             if (puzzlepiece.isInPieceInDirection(position)) {
                 // 'delete' connection-space in the in-pieces
-                area.subtract(new Area(gp));
+                area.subtract(connectorArea);
             } else {
                 // fill out-connectors with the 'deleted' image of the other piece
-                BufferedImage conImg = connection.getInPuzzlepiece().getImage();
+                BufferedImage conImg = imageCache.getImage(connection.getInPuzzlepiece(), puzzlepieceWidth, puzzlepieceHeight);
                 Shape oldClip = g2.getClip();
-                Area outConn = new Area(gp);
+                Area outConn = connectorArea;
 
                 outConn.intersect(new Area(oldClip)); // don't draw outside the visible shape of this puzzlepiece
                 g2.setClip(outConn);
@@ -511,8 +691,113 @@ public abstract class DrawablePuzzlepieceGroup extends JPanel {
         }
 
         // draws the image chunk
+        BufferedImage img = imageCache.getImage(puzzlepiece, puzzlepieceWidth, puzzlepieceHeight);
+
         g2.setPaint(new TexturePaint(img, imgRect));
         g2.fill(area);
     }
 
+    /**
+     * The key of a cached area of a connector.
+     */
+    private static class ConnectorKey {
+
+        private final Shape shape;
+
+        private final ConnectorPosition position;
+
+        private final boolean outConnector;
+
+        ConnectorKey(Shape shape, ConnectorPosition position, boolean outConnector) {
+            this.shape = shape;
+            this.position = position;
+            this.outConnector = outConnector;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 97 * hash + System.identityHashCode(shape);
+            hash = 97 * hash + position.hashCode();
+            hash = 97 * hash + (outConnector ? 1 : 0);
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ConnectorKey)) {
+                return false;
+            }
+            final ConnectorKey other = (ConnectorKey) obj;
+            return this.shape == other.shape
+                    && this.position == other.position
+                    && this.outConnector == other.outConnector;
+        }
+
+    }
+
+    /**
+     * A mask with one bit for every point of a view, that is set, if the point
+     * is hit.
+     */
+    private static class HitMask {
+
+        private final int width;
+
+        private final int height;
+
+        /**
+         * The bits of the mask or <code>null</code>, if the mask is empty.
+         */
+        private final BufferedImage bits;
+
+        HitMask(int width, int height) {
+            this.width = Math.max(0, width);
+            this.height = Math.max(0, height);
+            this.bits = this.width > 0 && this.height > 0
+                    ? new BufferedImage(this.width, this.height, BufferedImage.TYPE_BYTE_BINARY)
+                    : null;
+        }
+
+        /**
+         * Adds the points inside the given outline to this mask.
+         *
+         * @param outline The outline in the coordinates of the view.
+         */
+        void add(Shape outline) {
+            if (bits == null) {
+                return;
+            }
+            Graphics2D g = bits.createGraphics();
+
+            try {
+                g.setColor(Color.WHITE);
+                g.fill(outline);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        /**
+         * Checks, whether the given point is hit.
+         *
+         * @param x
+         * @param y
+         * @return
+         */
+        boolean contains(int x, int y) {
+            if (x < 0 || x >= width || y < 0 || y >= height) {
+                return false;
+            }
+            return bits.getRaster().getSample(x, y, 0) != 0;
+        }
+
+    }
+
 }
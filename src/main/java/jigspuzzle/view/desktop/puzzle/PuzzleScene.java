@@ -0,0 +1,372 @@
+package jigspuzzle.view.desktop.puzzle;
+
+import java.awt.EventQueue;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Observable;
+import java.util.function.Consumer;
+import javax.swing.JComponent;
+import jigspuzzle.controller.SettingsController;
+
+/**
+ * A component, that paints all puzzlepiece groups of a puzzlearea on one
+ * canvas. The views of the groups are not added to the puzzlearea, so they do
+ * not take part in the layout and the repainting of Swing. This component
+ * paints them in their order and dispatches the mouse events to them.
+ *
+ * To find the view at a point fast, the views are indexed in a grid of cells.
+ * The order of the views is kept by a number for each view, so that a view can
+ * be brought to the front without moving the other views.
+ *
+ * The pressed, released, clicked, moved and dragged mouse events are given to
+ * the views. Entering and exiting a view are not dispatched, since the views
+ * are no components in the scene.
+ *
+ * @author RoseTec
+ * @see SettingsController#getUseSingleCanvas()
+ */
+class PuzzleScene extends JComponent {
+
+    /**
+     * The size of the cells of the grid, in which the views are indexed.
+     */
+    private static final int CELL_SIZE = 128;
+
+    /**
+     * The views of the groups from the back to the front, sorted by their
+     * order.
+     */
+    private final TreeMap<Long, PuzzlepieceView> views = new TreeMap<>();
+
+    /**
+     * The order of the views. A view with a higher number is in front of a
+     * view with a lower number.
+     */
+    private final Map<PuzzlepieceView, Long> zOrder = new IdentityHashMap<>();
+
+    /**
+     * The bounds of the views, with which they are indexed in the cells.
+     */
+    private final Map<PuzzlepieceView, Rectangle> indexedBounds = new IdentityHashMap<>();
+
+    /**
+     * The views, that intersect a cell of the grid.
+     *
+     * @see #getCellKey(int, int)
+     */
+    private final Map<Long, List<PuzzlepieceView>> cells = new HashMap<>();
+
+    /**
+     * The number of the view, that was brought to the front last.
+     */
+    private long lastZOrder = 0;
+
+    /**
+     * The view, that gets the mouse events while a mouse button is pressed.
+     */
+    private PuzzlepieceView mouseTarget;
+
+    public PuzzleScene() {
+        this.setOpaque(false);
+        this.setName("puzzle-scene");
+
+        // dispatch the mouse events to the views
+        MouseAdapter mouseListener = new MouseAdapter() {
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (mouseTarget == null) {
+                    mouseTarget = getViewAt(e.getX(), e.getY());
+                }
+                dispatchMouseEvent(e, mouseTarget);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                dispatchMouseEvent(e, mouseTarget);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dispatchMouseEvent(e, mouseTarget);
+                if ((e.getModifiersEx() & (MouseEvent.BUTTON1_DOWN_MASK | MouseEvent.BUTTON2_DOWN_MASK | MouseEvent.BUTTON3_DOWN_MASK)) == 0) {
+                    mouseTarget = null;
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                // a click comes after the release, so the view is searched again
+                dispatchMouseEvent(e, getViewAt(e.getX(), e.getY()));
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                dispatchMouseEvent(e, getViewAt(e.getX(), e.getY()));
+            }
+
+        };
+        this.addMouseListener(mouseListener);
+        this.addMouseMotionListener(mouseListener);
+
+        // the views cannot repaint themselves, after they have adapted to the settings
+        SettingsController.getInstance().addPuzzleSettingsObserver((Observable o, Object arg) -> {
+            // the sprites of all puzzlepieces depend on these settings
+            PuzzlepieceImageCache.getInstance().clear();
+            EventQueue.invokeLater(this::updateAllViews);
+        });
+        SettingsController.getInstance().addPuzzleareaSettingsObserver((Observable o, Object arg) -> {
+            EventQueue.invokeLater(this::updateAllViews);
+        });
+    }
+
+    /**
+     * Adds the given view in front of all other views.
+     *
+     * @param view
+     */
+    void addView(PuzzlepieceView view) {
+        zOrder.put(view, ++lastZOrder);
+        views.put(lastZOrder, view);
+        updateView(view);
+    }
+
+    /**
+     * Brings the given view to the front, so that it is painted above all
+     * other views.
+     *
+     * @param view
+     */
+    void bringToFront(PuzzlepieceView view) {
+        Long oldZOrder = zOrder.get(view);
+
+        if (oldZOrder == null) {
+            return;
+        }
+        views.remove(oldZOrder);
+        zOrder.put(view, ++lastZOrder);
+        views.put(lastZOrder, view);
+        repaint(view.getBounds());
+    }
+
+    /**
+     * Gets the front most view, that contains the given point.
+     *
+     * @param x
+     * @param y
+     * @return The view or <code>null</code>, if there is no view at the point.
+     */
+    PuzzlepieceView getViewAt(int x, int y) {
+        List<PuzzlepieceView> cell = cells.get(getCellKey(Math.floorDiv(x, CELL_SIZE), Math.floorDiv(y, CELL_SIZE)));
+        PuzzlepieceView frontView = null;
+        long frontZOrder = Long.MIN_VALUE;
+
+        if (cell == null) {
+            return null;
+        }
+        for (PuzzlepieceView view : cell) {
+            long viewZOrder = zOrder.get(view);
+
+            if (viewZOrder > frontZOrder && view.contains(x - view.getX(), y - view.getY())) {
+                frontView = view;
+                frontZOrder = viewZOrder;
+            }
+        }
+        return frontView;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+
+        for (PuzzlepieceView view : views.values()) {
+            Rectangle bounds = view.getBounds();
+
+            // only paint the views, that are visible
+            if (clip != null && !clip.intersects(bounds)) {
+                continue;
+            }
+            Graphics viewGraphics = g.create(bounds.x, bounds.y, bounds.width, bounds.height);
+
+            try {
+                view.paintComponent(viewGraphics);
+            } finally {
+                viewGraphics.dispose();
+            }
+        }
+    }
+
+    /**
+     * Removes the given view from this scene.
+     *
+     * @param view
+     */
+    void removeView(PuzzlepieceView view) {
+        Long oldZOrder = zOrder.remove(view);
+
+        if (oldZOrder == null) {
+            return;
+        }
+        if (view == mouseTarget) {
+            mouseTarget = null;
+        }
+        views.remove(oldZOrder);
+        Rectangle bounds = indexedBounds.remove(view);
+        if (bounds != null) {
+            removeFromCells(view, bounds);
+            repaint(bounds);
+        }
+    }
+
+    /**
+     * Removes all views from this scene.
+     */
+    void removeAllViews() {
+        for (PuzzlepieceView view : new ArrayList<>(views.values())) {
+            removeView(view);
+        }
+    }
+
+    /**
+     * Updates the index of the given view to its current bounds and repaints
+     * the union of its old and its new bounds. It has to be called, after the
+     * group of the view has changed.
+     *
+     * @param view
+     */
+    void updateView(PuzzlepieceView view) {
+        if (!zOrder.containsKey(view)) {
+            return;
+        }
+        Rectangle oldBounds = indexedBounds.get(view);
+        Rectangle bounds = view.getBounds();
+
+        if (!bounds.equals(oldBounds)) {
+            if (oldBounds != null) {
+                removeFromCells(view, oldBounds);
+            }
+            addToCells(view, bounds);
+            indexedBounds.put(view, bounds);
+        }
+
+        // only repaint the region, that the view has left and entered
+        repaint(oldBounds == null ? bounds : oldBounds.union(bounds));
+    }
+
+    /**
+     * Dispatches the given mouse event of this scene to the given view. The
+     * event is moved into the coordinates of the view.
+     */
+    private void dispatchMouseEvent(MouseEvent e, PuzzlepieceView view) {
+        if (view == null) {
+            return;
+        }
+        MouseEvent viewEvent = new MouseEvent(view, e.getID(), e.getWhen(), e.getModifiersEx(),
+                e.getX() - view.getX(), e.getY() - view.getY(), e.getXOnScreen(), e.getYOnScreen(),
+                e.getClickCount(), e.isPopupTrigger(), e.getButton());
+
+        switch (e.getID()) {
+            case MouseEvent.MOUSE_PRESSED:
+                for (MouseListener listener : view.getMouseListeners()) {
+                    listener.mousePressed(viewEvent);
+                }
+                break;
+            case MouseEvent.MOUSE_RELEASED:
+                for (MouseListener listener : view.getMouseListeners()) {
+                    listener.mouseReleased(viewEvent);
+                }
+                break;
+            case MouseEvent.MOUSE_CLICKED:
+                for (MouseListener listener : view.getMouseListeners()) {
+                    listener.mouseClicked(viewEvent);
+                }
+                break;
+            case MouseEvent.MOUSE_DRAGGED:
+                for (MouseMotionListener listener : view.getMouseMotionListeners()) {
+                    listener.mouseDragged(viewEvent);
+                }
+                break;
+            case MouseEvent.MOUSE_MOVED:
+                for (MouseMotionListener listener : view.getMouseMotionListeners()) {
+                    listener.mouseMoved(viewEvent);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Gets the key of the cell in the given column and row of the grid.
+     */
+    private static long getCellKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds the given view to all cells, that intersect the given bounds.
+     */
+    private void addToCells(PuzzlepieceView view, Rectangle bounds) {
+        forEachCell(bounds, (Long key) -> {
+            cells.computeIfAbsent(key, (Long k) -> new ArrayList<>()).add(view);
+        });
+    }
+
+    /**
+     * Removes the given view from all cells, that intersect the given bounds.
+     */
+    private void removeFromCells(PuzzlepieceView view, Rectangle bounds) {
+        forEachCell(bounds, (Long key) -> {
+            List<PuzzlepieceView> cell = cells.get(key);
+
+            if (cell != null) {
+                cell.remove(view);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Calls the given action with the keys of all cells, that intersect the
+     * given bounds.
+     */
+    private void forEachCell(Rectangle bounds, Consumer<Long> action) {
+        if (bounds.isEmpty()) {
+            return;
+        }
+        int firstColumn = Math.floorDiv(bounds.x, CELL_SIZE);
+        int lastColumn = Math.floorDiv(bounds.x + bounds.width - 1, CELL_SIZE);
+        int firstRow = Math.floorDiv(bounds.y, CELL_SIZE);
+        int lastRow = Math.floorDiv(bounds.y + bounds.height - 1, CELL_SIZE);
+
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                action.accept(getCellKey(column, row));
+            }
+        }
+    }
+
+    /**
+     * Updates the views after the settings have changed, e.g. their sizes.
+     */
+    private void updateAllViews() {
+        for (PuzzlepieceView view : views.values()) {
+            updateView(view);
+        }
+        repaint();
+    }
+
+}
@@ -1,6 +1,5 @@
 package jigspuzzle.view.desktop.puzzle;
 
-import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.datatransfer.DataFlavor;
@@ -14,13 +13,17 @@ import java.awt.event.ComponentEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 import javax.swing.JLayeredPane;
 import jigspuzzle.controller.PuzzleController;
 import jigspuzzle.controller.SettingsController;
 import jigspuzzle.model.puzzle.Puzzle;
 import jigspuzzle.model.puzzle.PuzzlepieceGroup;
+import jigspuzzle.model.puzzle.PuzzlepieceGroupEvent;
+import jigspuzzle.model.puzzle.PuzzlepieceGroupListener;
 import jigspuzzle.model.settings.PuzzleareaSettings;
 
 /**
@@ -45,7 +48,33 @@ public class Puzzlearea extends JLayeredPane {
 
     private PuzzlePreview preview;
 
+    /**
+     * The canvas, on which all puzzlepiece groups are painted, if the
+     * puzzlepiece groups are not added as own components to this puzzlearea.
+     *
+     * @see SettingsController#getUseSingleCanvas()
+     */
+    private final PuzzleScene scene;
+
+    /**
+     * The views of the puzzlepiece groups, that are in the puzzle.
+     */
+    private final Map<PuzzlepieceGroup, PuzzlepieceView> puzzlepieceViews = new IdentityHashMap<>();
+
+    /**
+     * Moves the views to the new positions of their groups, after the puzzle
+     * was shuffled.
+     */
+    private final ShuffleAnimation shuffleAnimation;
+
+    /**
+     * Gives the changes of the puzzlepiece groups to their views.
+     */
+    private final PuzzlepieceGroupListener puzzlepieceGroupListener = this::puzzlepieceGroupsChanged;
+
     public Puzzlearea() {
+        this.scene = new PuzzleScene();
+        this.shuffleAnimation = new ShuffleAnimation(scene::updateView);
         this.setLayout(null);
         this.setOpaque(true);
         this.setName("puzzlearea");
@@ -69,12 +98,10 @@ public class Puzzlearea extends JLayeredPane {
                     return;
                 }
 
-                for (Component comp : getComponents()) {
-                    if (comp instanceof PuzzlepieceView) {
-                        PuzzlepieceView view = (PuzzlepieceView) comp;
-
-                        view.adjustSizeToPuzzlearea();
-                    }
+                SettingsController.getInstance().invalidatePuzzleareaGeometry();
+                scene.setSize(e.getComponent().getSize());
+                for (PuzzlepieceView view : getPuzzlepieceViews()) {
+                    view.adjustSizeToPuzzlearea();
                 }
             }
         });
@@ -123,7 +150,14 @@ public class Puzzlearea extends JLayeredPane {
      * @param puzzlepieceView
      */
     public void bringToFront(PuzzlepieceView puzzlepieceView) {
-        moveToFront(puzzlepieceView);
+        // the view is grabbed, so it has to be where its group is
+        shuffleAnimation.stop(puzzlepieceView);
+
+        if (puzzlepieceView.getParent() == this) {
+            moveToFront(puzzlepieceView);
+        } else {
+            scene.bringToFront(puzzlepieceView);
+        }
     }
 
     /**
@@ -134,18 +168,8 @@ public class Puzzlearea extends JLayeredPane {
      */
     public void bringToFront(PuzzlepieceGroup puzzlepieceGroup) {
         // find the view of the given group
-        PuzzlepieceView groupView = null;
-
-        for (Component comp : this.getComponents()) {
-            if (comp instanceof PuzzlepieceView) {
-                PuzzlepieceView group = (PuzzlepieceView) comp;
+        PuzzlepieceView groupView = puzzlepieceViews.get(puzzlepieceGroup);
 
-                if (group.belongsToPuzzlepieceGroup(puzzlepieceGroup)) {
-                    groupView = group;
-                    break;
-                }
-            }
-        }
         if (groupView == null) {
             return;
         }
@@ -159,12 +183,81 @@ public class Puzzlearea extends JLayeredPane {
      * method, the puzzlearea will be empty.
      */
     public void deletePuzzle() {
+        if (puzzle != null) {
+            puzzle.removePuzzlepieceGroupListener(puzzlepieceGroupListener);
+        }
         puzzle = null;
+        PuzzlepieceImageCache.getInstance().clear();
+        shuffleAnimation.clear();
+        for (PuzzlepieceView view : puzzlepieceViews.values()) {
+            view.dispose();
+        }
+        puzzlepieceViews.clear();
+        scene.removeAllViews();
         removeAll();
         addPuzzlePreview();
         repaint();
     }
 
+    /**
+     * Gives the changes of the puzzlepiece groups to their views. All views
+     * are updated at once and repainted together afterwards. The views of
+     * shuffled groups are animated, if it is set in the settings.
+     *
+     * @param events
+     */
+    private void puzzlepieceGroupsChanged(List<PuzzlepieceGroupEvent> events) {
+        int shuffleDuration = SettingsController.getInstance().getShuffleDuration();
+        boolean shuffled = false;
+
+        for (PuzzlepieceGroupEvent event : events) {
+            PuzzlepieceView view = puzzlepieceViews.get(event.getGroup());
+
+            if (view == null) {
+                continue;
+            }
+            boolean animated = event.getType() == PuzzlepieceGroupEvent.Type.SHUFFLED && shuffleDuration > 0;
+
+            if (!animated && event.getType() != PuzzlepieceGroupEvent.Type.IMAGE_CHANGED) {
+                shuffleAnimation.stop(view);
+            }
+            if (animated) {
+                // move the view from where it is now, also if it is still animated
+                Point start = view.getLocation();
+
+                view.puzzlepieceGroupChanged(event);
+                shuffleAnimation.add(view, start);
+                shuffled = true;
+            } else if (event.getType() == PuzzlepieceGroupEvent.Type.DESTROYED) {
+                // the group is not in the puzzle anymore
+                puzzlepieceViews.remove(event.getGroup());
+                view.dispose();
+                if (view.getParent() == this) {
+                    remove(view);
+                    repaint(view.getBounds());
+                } else {
+                    scene.removeView(view);
+                }
+            } else {
+                view.puzzlepieceGroupChanged(event);
+                scene.updateView(view);
+            }
+        }
+        if (shuffled) {
+            shuffleAnimation.start(shuffleDuration);
+        }
+    }
+
+    /**
+     * Gets the views of all puzzlepiece groups on this puzzlearea. The views
+     * are either added to this puzzlearea or painted on one canvas.
+     *
+     * @return
+     */
+    private List<PuzzlepieceView> getPuzzlepieceViews() {
+        return new ArrayList<>(puzzlepieceViews.values());
+    }
+
     /**
      * @see #setPuzzleareaStart(java.awt.Point)
      */
@@ -178,7 +271,7 @@ public class Puzzlearea extends JLayeredPane {
      * @return
      */
     public int getPuzzlepieceHeight() {
-        return SettingsController.getInstance().getPuzzlepieceSize().height;
+        return SettingsController.getInstance().getPuzzleareaGeometry().getPuzzlepieceHeight();
     }
 
     /**
@@ -187,7 +280,7 @@ public class Puzzlearea extends JLayeredPane {
      * @return
      */
     public int getPuzzlepieceWidth() {
-        return SettingsController.getInstance().getPuzzlepieceSize().width;
+        return SettingsController.getInstance().getPuzzleareaGeometry().getPuzzlepieceWidth();
     }
 
     /**
@@ -225,23 +318,26 @@ public class Puzzlearea extends JLayeredPane {
 
                 newView.setName("puzzlepiece-group-" + x + "-" + y); // name is needed for tests
                 piecegroupsViews.set(listIndex, newView);
-
-                // add observer to the puzzlepieces
-                group.addObserver((Observable o, Object arg) -> {
-                    if (!group.isInPuzzle()) {
-                        Puzzlearea.this.remove(newView);
-                        repaint();
-                    }
-                });
+                puzzlepieceViews.put(group, newView);
             }
         }
+        puzzle.addPuzzlepieceGroupListener(puzzlepieceGroupListener);
 
         // display all puzzlepieces on the puzzlearea
         Dimension size = getSize();
 
         setVisible(false);
-        for (PuzzlepieceView view : piecegroupsViews) {
-            add(view);
+        if (SettingsController.getInstance().getUseSingleCanvas()) {
+            // paint all puzzlepieces on one canvas
+            for (PuzzlepieceView view : piecegroupsViews) {
+                scene.addView(view);
+            }
+            scene.setBounds(0, 0, size.width, size.height);
+            add(scene);
+        } else {
+            for (PuzzlepieceView view : piecegroupsViews) {
+                add(view);
+            }
         }
         setVisible(true);
         setSize(size); //<- so that getSize() not just returns (0,0)
@@ -0,0 +1,273 @@
+package jigspuzzle.view.desktop.puzzle;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import jigspuzzle.controller.SettingsController;
+import jigspuzzle.model.puzzle.Puzzlepiece;
+
+/**
+ * A cache for the images of puzzlepieces, that are scaled to the size, in which
+ * they are displayed. The pixels of a puzzlepiece are only held once in the
+ * image of the puzzle and are scaled, when the puzzlepiece is painted.
+ *
+ * The cache holds also the sprites of the puzzlepieces. A sprite is the
+ * puzzlepiece with its connectors, that is rendered once and can be drawn
+ * directly afterwards.
+ *
+ * The memory of the cache is limited by the settings. If the scaled images need
+ * more memory, the least recently painted ones are removed, e.g. the ones of
+ * puzzlepieces that are not visible.
+ *
+ * @author RoseTec
+ * @see SettingsController#getPuzzlepieceImageCacheSize()
+ */
+class PuzzlepieceImageCache {
+
+    private static PuzzlepieceImageCache instance;
+
+    /**
+     * Gets the cache, that is shared by all views of puzzlepieces.
+     *
+     * @return
+     */
+    static synchronized PuzzlepieceImageCache getInstance() {
+        if (instance == null) {
+            instance = new PuzzlepieceImageCache();
+        }
+        return instance;
+    }
+
+    /**
+     * The scaled images in the order, in which they were used. The least
+     * recently used image is the first one.
+     */
+    private final LinkedHashMap<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The keys of the images in this cache for each puzzlepiece, so that the
+     * images of a puzzlepiece can be removed without looking at all images.
+     */
+    private final Map<Puzzlepiece, List<Key>> keysOfPieces = new IdentityHashMap<>();
+
+    /**
+     * The memory in bytes, that the images in this cache use.
+     */
+    private long usedMemory = 0;
+
+    PuzzlepieceImageCache() {
+    }
+
+    /**
+     * Removes all images from this cache.
+     */
+    synchronized void clear() {
+        images.clear();
+        keysOfPieces.clear();
+        usedMemory = 0;
+    }
+
+    /**
+     * Gets the image of the given puzzlepiece in the given size. The image is
+     * scaled, if it is not in this cache.
+     *
+     * @param piece
+     * @param width
+     * @param height
+     * @return
+     */
+    synchronized BufferedImage getImage(Puzzlepiece piece, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return piece.getImage();
+        }
+        Key key = new Key(piece, width, height, false);
+        BufferedImage image = images.get(key);
+
+        if (image == null) {
+            image = scaleImage(piece.getImage(), width, height);
+            put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Gets the sprite of the given puzzlepiece in the given size. The sprite is
+     * rendered, if it is not in this cache.
+     *
+     * A sprite depends on more than on the size, e.g. the shapes of the
+     * connectors. So the sprites of the puzzlepieces have to be removed, when
+     * they are rendered in another way.
+     *
+     * @param piece
+     * @param width The width of the puzzlepiece without its connectors.
+     * @param height The height of the puzzlepiece without its connectors.
+     * @param renderer Renders the sprite of the given puzzlepiece.
+     * @return
+     * @see #remove(java.util.Collection)
+     */
+    synchronized BufferedImage getSprite(Puzzlepiece piece, int width, int height, Function<Puzzlepiece, BufferedImage> renderer) {
+        Key key = new Key(piece, width, height, true);
+        BufferedImage sprite = images.get(key);
+
+        if (sprite == null) {
+            sprite = renderer.apply(piece);
+            put(key, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Gets the number of images in this cache.
+     *
+     * @return
+     */
+    synchronized int getImageCount() {
+        return images.size();
+    }
+
+    /**
+     * Gets the memory in bytes, that the images in this cache use.
+     *
+     * @return
+     */
+    synchronized long getUsedMemory() {
+        return usedMemory;
+    }
+
+    /**
+     * Removes the images and sprites of the given puzzlepieces, e.g. because
+     * their images have changed.
+     *
+     * @param pieces
+     */
+    synchronized void remove(Collection<Puzzlepiece> pieces) {
+        for (Puzzlepiece piece : pieces) {
+            List<Key> keys = keysOfPieces.remove(piece);
+
+            if (keys == null) {
+                continue;
+            }
+            for (Key key : keys) {
+                usedMemory -= getMemory(images.remove(key));
+            }
+        }
+    }
+
+    /**
+     * Adds the given image to this cache and removes the least recently used
+     * images, if needed.
+     */
+    private void put(Key key, BufferedImage image) {
+        BufferedImage oldImage = images.put(key, image);
+
+        if (oldImage != null) {
+            usedMemory -= getMemory(oldImage);
+        } else {
+            keysOfPieces.computeIfAbsent(key.piece, (Puzzlepiece p) -> new ArrayList<>(2)).add(key);
+        }
+        usedMemory += getMemory(image);
+        removeLeastRecentlyUsed(SettingsController.getInstance().getPuzzlepieceImageCacheSize() * 1024L * 1024L);
+    }
+
+    /**
+     * Removes the least recently used images, until the images use not more
+     * than the given memory.
+     */
+    private void removeLeastRecentlyUsed(long maxMemory) {
+        Iterator<Map.Entry<Key, BufferedImage>> it = images.entrySet().iterator();
+
+        while (usedMemory > maxMemory && it.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = it.next();
+            List<Key> keys = keysOfPieces.get(entry.getKey().piece);
+
+            keys.remove(entry.getKey());
+            if (keys.isEmpty()) {
+                keysOfPieces.remove(entry.getKey().piece);
+            }
+            usedMemory -= getMemory(entry.getValue());
+            it.remove();
+        }
+    }
+
+    /**
+     * Gets the memory in bytes, that the given scaled image uses.
+     */
+    private static long getMemory(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Scales the given image to the given size.
+     */
+    private static BufferedImage scaleImage(BufferedImage img, int width, int height) {
+        BufferedImage scaledImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaledImage.createGraphics();
+
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(img, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaledImage;
+    }
+
+    /**
+     * The key of a scaled image or a sprite in this cache.
+     */
+    private static class Key {
+
+        private final Puzzlepiece piece;
+
+        private final int width;
+
+        private final int height;
+
+        private final boolean sprite;
+
+        Key(Puzzlepiece piece, int width, int height, boolean sprite) {
+            this.piece = piece;
+            this.width = width;
+            this.height = height;
+            this.sprite = sprite;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 41 * hash + System.identityHashCode(piece);
+            hash = 41 * hash + width;
+            hash = 41 * hash + height;
+            hash = 41 * hash + (sprite ? 1 : 0);
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.piece == other.piece
+                    && this.width == other.width
+                    && this.height == other.height
+                    && this.sprite == other.sprite;
+        }
+
+    }
+
+}
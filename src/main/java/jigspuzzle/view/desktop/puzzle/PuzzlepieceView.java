@@ -4,13 +4,18 @@ import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Shape;
+import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Area;
 import java.util.Observable;
+import java.util.Observer;
+import javax.swing.Timer;
 import jigspuzzle.JigSPuzzle;
 import jigspuzzle.controller.PuzzleController;
+import jigspuzzle.controller.PuzzleareaGeometry;
 import jigspuzzle.controller.SettingsController;
+import jigspuzzle.model.ModelThread;
 import jigspuzzle.model.puzzle.Puzzlepiece;
 import jigspuzzle.model.puzzle.PuzzlepieceGroup;
 import jigspuzzle.util.MathUtil;
@@ -26,6 +31,14 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
 
     private final Puzzlearea puzzlearea;
 
+    /**
+     * Adapts the size of puzzlepieces to changing settings.
+     */
+    private final Observer puzzleareaSettingsObserver = (Observable o, Object arg) -> {
+        updateViewSize();
+        this.repaint();
+    };
+
     public PuzzlepieceView(Puzzlearea puzzlearea, PuzzlepieceGroup group) {
         super(group);
         this.puzzlearea = puzzlearea;
@@ -37,10 +50,7 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
         this.addMouseMotionListener(motionLstener);
 
         // adapt the size of puzzlepieces to changing setting
-        SettingsController.getInstance().addPuzzleareaSettingsObserver((Observable o, Object arg) -> {
-            updateViewSize();
-            this.repaint();
-        });
+        SettingsController.getInstance().addPuzzleareaSettingsObserver(puzzleareaSettingsObserver);
 
         // adapt size of this panel to the puzzlepieces inside it
         this.updateViewLocation();
@@ -62,6 +72,15 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
         updateViewSize();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void dispose() {
+        super.dispose();
+        SettingsController.getInstance().deletePuzzleareaSettingsObserver(puzzleareaSettingsObserver);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -159,20 +178,16 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
             Area groupShape = getShapeForPuzzlepeceGroup(newLocation);
 
             // checks if the point is in the screen
-            Area screnArea = new Area();
-            Rectangle[] allScreens = JigSPuzzle.getInstance().getPuzzleWindow().getPuzzleareaBounds();
+            PuzzleareaGeometry geometry = SettingsController.getInstance().getPuzzleareaGeometry();
 
-            for (Rectangle rect : allScreens) {
-                screnArea.add(new Area(rect));
-            }
-            if (screnArea.contains(groupShape.getBounds())) {
+            if (geometry.isOnScreens(groupShape.getBounds())) {
                 return;
             }
 
             // get the screen that the new point is nearest to
             Rectangle puzzleareaRect;
 
-            puzzleareaRect = MathUtil.getRectangleNearestToPoint(newLocation, allScreens);
+            puzzleareaRect = MathUtil.getRectangleNearestToPoint(newLocation, geometry.getScreens());
 
             // correct point to be in sceen
             if (newLocation.x < puzzleareaRect.x) {
@@ -235,6 +250,20 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
 
         private boolean isAbleToMovePiece = false;
 
+        /**
+         * The position, to that the puzzlepiece group is moved in the next
+         * frame. It is <code>null</code>, if the group is at the position of
+         * the last drag.
+         */
+        private Point nextPosition;
+
+        /**
+         * Moves the puzzlepiece group at most once per frame while dragging.
+         * The mouse is dragged more often than the screen is refreshed, and
+         * every move repaints the groups under this group.
+         */
+        private final Timer frameTimer;
+
         /**
          * The initial x position, when the mousebutton has been clicked
          */
@@ -252,6 +281,10 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
 
         public PieceMoveListener(PuzzlepieceView puzzlepieceView) {
             this.puzzlepieceView = puzzlepieceView;
+            this.frameTimer = new Timer(ModelThread.FRAME_DELAY, (ActionEvent e) -> {
+                moveToNextPosition();
+            });
+            this.frameTimer.setRepeats(false);
         }
 
         /**
@@ -278,7 +311,12 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
                 Point p = new Point(newX, newY);
 
                 puzzlepieceView.correctPuzzlepieceGroupToFitInPuzzlearea(p);
-                puzzlepieceView.setPuzzlepieceGroupPosition(p);
+                nextPosition = p;
+
+                // move the group now, if it was not moved in this frame
+                if (!frameTimer.isRunning()) {
+                    moveToNextPosition();
+                }
             }
         }
 
@@ -288,11 +326,28 @@ public class PuzzlepieceView extends DrawablePuzzlepieceGroup {
         @Override
         public void mouseReleased(MouseEvent e) {
             if (e.getButton() == MouseEvent.BUTTON1) {
+                frameTimer.stop();
+                if (nextPosition != null) {
+                    puzzlepieceView.setPuzzlepieceGroupPosition(nextPosition);
+                    nextPosition = null;
+                }
                 trySnapWithOtherGroups();
                 isAbleToMovePiece = false;
             }
         }
 
+        /**
+         * Moves the puzzlepiece group to the position of the last drag and
+         * waits for the next frame, before it is moved again.
+         */
+        private void moveToNextPosition() {
+            if (nextPosition != null) {
+                puzzlepieceView.setPuzzlepieceGroupPosition(nextPosition);
+                nextPosition = null;
+                frameTimer.restart();
+            }
+        }
+
     }
 
 }
@@ -0,0 +1,168 @@
+package jigspuzzle.view.desktop.puzzle;
+
+import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+import jigspuzzle.controller.SettingsController;
+import jigspuzzle.model.ModelThread;
+
+/**
+ * Animates the views of the puzzlepiece groups to their new positions, after
+ * the puzzle was shuffled. The groups are already on their new positions, only
+ * their views are moved there once per frame. So the animation takes the same
+ * time for any number of puzzlepieces.
+ *
+ * @author RoseTec
+ * @see SettingsController#getShuffleDuration()
+ */
+class ShuffleAnimation {
+
+    /**
+     * The views, that are animated, with the location, from which they are
+     * moved, and the location, to which they are moved.
+     */
+    private final Map<PuzzlepieceView, Point[]> moves = new IdentityHashMap<>();
+
+    /**
+     * Called, after a view was moved.
+     */
+    private final Consumer<PuzzlepieceView> viewMoved;
+
+    /**
+     * Moves the views once per frame.
+     */
+    private final Timer frameTimer;
+
+    /**
+     * The time in milliseconds, when the animation was started.
+     */
+    private long startTime;
+
+    /**
+     * The time in milliseconds, that the animation takes.
+     */
+    private int duration;
+
+    /**
+     * @param viewMoved Called, after a view was moved, e.g. to repaint it.
+     */
+    ShuffleAnimation(Consumer<PuzzlepieceView> viewMoved) {
+        this.viewMoved = viewMoved;
+        this.frameTimer = new Timer(ModelThread.FRAME_DELAY, (ActionEvent e) -> {
+            nextFrame(System.currentTimeMillis());
+        });
+    }
+
+    /**
+     * Adds the given view to the animation. The view is moved back to the
+     * given location and from there to its current location.
+     *
+     * @param view
+     * @param start
+     * @see #start(int)
+     */
+    void add(PuzzlepieceView view, Point start) {
+        moves.put(view, new Point[]{start, view.getLocation()});
+        view.setLocation(start);
+        viewMoved.accept(view);
+    }
+
+    /**
+     * Removes all views from the animation and leaves them, where they are.
+     */
+    void clear() {
+        moves.clear();
+        frameTimer.stop();
+    }
+
+    /**
+     * Starts the animation of all added views, that takes the given time.
+     * Views, that are still animated from an earlier start, are moved from
+     * their current location.
+     *
+     * @param duration The time in milliseconds.
+     */
+    void start(int duration) {
+        start(duration, System.currentTimeMillis());
+    }
+
+    /**
+     * Starts the animation of all added views at the given time.
+     *
+     * @param duration The time in milliseconds.
+     * @param startTime The time in milliseconds, when the animation starts.
+     * @see #start(int)
+     */
+    void start(int duration, long startTime) {
+        for (Map.Entry<PuzzlepieceView, Point[]> move : moves.entrySet()) {
+            move.getValue()[0] = move.getKey().getLocation();
+        }
+        this.duration = duration;
+        this.startTime = startTime;
+        frameTimer.start();
+    }
+
+    /**
+     * Stops the animation of the given view and moves it to its new location
+     * at once, e.g. because the user grabs it.
+     *
+     * @param view
+     */
+    void stop(PuzzlepieceView view) {
+        Point[] move = moves.remove(view);
+
+        if (move != null) {
+            view.setLocation(move[1]);
+            viewMoved.accept(view);
+        }
+        if (moves.isEmpty()) {
+            frameTimer.stop();
+        }
+    }
+
+    /**
+     * Moves all views to their locations in the frame at the given time.
+     *
+     * @param time The time in milliseconds.
+     */
+    void nextFrame(long time) {
+        double progress = duration <= 0 ? 1 : (time - startTime) / (double) duration;
+
+        if (progress >= 1) {
+            // the animation is finished
+            for (PuzzlepieceView view : new ArrayList<>(moves.keySet())) {
+                stop(view);
+            }
+            return;
+        }
+
+        double eased = ease(progress);
+
+        for (Map.Entry<PuzzlepieceView, Point[]> move : moves.entrySet()) {
+            Point start = move.getValue()[0];
+            Point end = move.getValue()[1];
+
+            move.getKey().setLocation(
+                    (int) Math.round(start.x + (end.x - start.x) * eased),
+                    (int) Math.round(start.y + (end.y - start.y) * eased));
+            viewMoved.accept(move.getKey());
+        }
+    }
+
+    /**
+     * Gets the part of the way, that a view has moved, when the given part of
+     * the time of the animation has passed. The views slow down at the start
+     * and the end.
+     *
+     * @param progress The part of the time between 0 and 1.
+     * @return The part of the way between 0 and 1.
+     */
+    static double ease(double progress) {
+        return progress * progress * (3 - 2 * progress);
+    }
+
+}
@@ -1,24 +1,45 @@
 package jigspuzzle.controller;
 
+import java.awt.Dimension;
 import java.awt.Image;
+import java.awt.Point;
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
 import jigspuzzle.JigSPuzzle;
+import jigspuzzle.model.puzzle.ConnectorPosition;
 import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.model.puzzle.PuzzleSnapshot;
+import jigspuzzle.model.puzzle.Puzzlepiece;
 import jigspuzzle.model.puzzle.PuzzlepieceGroup;
 import jigspuzzle.testutils.factories.FactorySlave;
 import jigspuzzle.testutils.mockups.DummyPuzzleWindow;
+import jigspuzzle.util.ImageUtil;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import static org.junit.Assert.*;
 
 public class PuzzleControllerIT {
 
     private static final String puzzlename = "test-puzzle." + PuzzleController.PUZZLE_SAVES_ENDING;
 
+    private static final String autosavename = "test-autosave." + PuzzleController.PUZZLE_SAVES_ENDING;
+
     public PuzzleControllerIT() {
     }
 
@@ -43,6 +64,9 @@ public class PuzzleControllerIT {
             file.delete();
         } catch (Exception ex) {
         }
+        PuzzleController.getInstance().stopAutosave();
+        new File(autosavename).delete();
+        new File(autosavename + ".journal").delete();
 
         // reset all controllers
         JigSPuzzle.getInstance().resetInstances();
@@ -99,6 +123,324 @@ public class PuzzleControllerIT {
         instance.loadPuzzle(testFile);
 
         assertTrue(puzzle.equals(instance.getPuzzle()));
+        assertEquals(puzzle.getSeed(), instance.getPuzzle().getSeed());
+    }
+
+    @Test
+    public void testLoadPuzzle_waitForImage() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+
+        instance.setPuzzle(puzzle);
+        instance.savePuzzle(testFile);
+        instance.setPuzzle(null);
+        instance.loadPuzzle(testFile);
+        instance.getPuzzle().waitForImage();
+
+        Puzzlepiece piece = puzzle.getPuzzlepieceGroups().get(4).getPuzzlepieces().get(0);
+        Puzzlepiece loadedPiece = instance.getPuzzle().getPuzzlepieceGroups().get(4).getPuzzlepieces().get(0);
+        assertTrue(ImageUtil.imagesAreEqual(piece.getImage(), loadedPiece.getImage()));
+    }
+
+    @Test
+    public void testLoadPuzzle_corruptImage() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+
+        instance.setPuzzle(puzzle);
+        instance.savePuzzle(testFile);
+        instance.setPuzzle(null);
+
+        // destroy the compressed data of the image, but keep its size
+        byte[] bytes = Files.readAllBytes(testFile.toPath());
+        int data = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("IDAT") + 6;
+        for (int i = data; i < data + 16; i++) {
+            bytes[i] = (byte) 0xff;
+        }
+        Files.write(testFile.toPath(), bytes);
+
+        instance.loadPuzzle(testFile);
+        instance.getPuzzle().waitForImage();
+
+        try {
+            instance.createPuzzleSnapshot();
+            fail("A puzzle with a broken image must not be saved");
+        } catch (IOException ex) {
+        }
+        try {
+            instance.savePuzzle(testFile);
+            fail("A puzzle with a broken image must not be saved");
+        } catch (IOException ex) {
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(testFile.toPath()));
+    }
+
+    @Test
+    public void testSavePuzzle_loadedFile() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+
+        instance.setPuzzle(puzzle);
+        instance.savePuzzle(testFile);
+        instance.setPuzzle(null);
+
+        // the loaded puzzle is saved without waiting for its image
+        instance.loadPuzzle(testFile);
+        instance.getPuzzle().getPuzzlepieceGroups().get(0).setPosition(10, 20);
+        instance.savePuzzle(testFile);
+        instance.setPuzzle(null);
+        instance.loadPuzzle(testFile);
+        instance.getPuzzle().waitForImage();
+
+        assertTrue(ImageUtil.imagesAreEqual(puzzle.getImage(), instance.getPuzzle().getImage()));
+        assertEquals(10, instance.getPuzzle().getPuzzlepieceGroups().get(0).getX());
+        assertEquals(20, instance.getPuzzle().getPuzzlepieceGroups().get(0).getY());
+        assertFalse(new File(puzzlename + ".tmp").exists());
+    }
+
+    @Test
+    public void testSavePuzzle_loadedFileDecoded() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+
+        instance.setPuzzle(puzzle);
+        instance.savePuzzle(testFile);
+        instance.setPuzzle(null);
+
+        // the loaded file is released after decoding, so the image is encoded again
+        instance.loadPuzzle(testFile);
+        instance.getPuzzle().waitForImage();
+        instance.savePuzzle(testFile);
+        instance.setPuzzle(null);
+        instance.loadPuzzle(testFile);
+        instance.getPuzzle().waitForImage();
+
+        assertTrue(ImageUtil.imagesAreEqual(puzzle.getImage(), instance.getPuzzle().getImage()));
+    }
+
+    @Test
+    public void testSavePuzzle_snapshot() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        PuzzlepieceGroup group = puzzle.getPuzzlepieceGroups().get(0);
+
+        group.setPosition(10, 20);
+        PuzzleSnapshot snapshot = instance.createPuzzleSnapshot();
+        group.setPosition(30, 40);
+        instance.savePuzzle(testFile, snapshot, null);
+        instance.setPuzzle(null);
+        instance.loadPuzzle(testFile);
+
+        assertEquals(10, instance.getPuzzle().getPuzzlepieceGroups().get(0).getX());
+        assertEquals(20, instance.getPuzzle().getPuzzlepieceGroups().get(0).getY());
+    }
+
+    @Test
+    public void testSavePuzzle_withMergedGroups() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        List<PuzzlepieceGroup> groups = puzzle.getPuzzlepieceGroups();
+
+        // merge the group in the middle with the group left and on the top of it
+        PuzzlepieceGroup groupMiddle = groups.get(4);
+        Puzzlepiece pieceMiddle = groupMiddle.getPuzzlepieces().get(0);
+
+        groupMiddle.addFromPuzzlepieceGroup(groups.get(3), pieceMiddle.getConnectorForDirection(ConnectorPosition.LEFT));
+        groups.get(3).destroy();
+        groupMiddle.addFromPuzzlepieceGroup(groups.get(1), pieceMiddle.getConnectorForDirection(ConnectorPosition.TOP));
+        groups.get(1).destroy();
+
+        instance.savePuzzle(testFile);
+        instance.setPuzzle(null);
+        instance.loadPuzzle(testFile);
+
+        assertTrue(puzzle.equals(instance.getPuzzle()));
+        assertEquals(7, instance.getPuzzle().getPuzzlepieceGroups().size());
+    }
+
+    @Test
+    public void testRecoverPuzzle() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(autosavename);
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        instance.startAutosave(testFile);
+        List<PuzzlepieceGroup> groups = puzzle.getPuzzlepieceGroups();
+
+        // move and merge groups after the snapshot
+        PuzzlepieceGroup groupMiddle = groups.get(4);
+        Puzzlepiece pieceMiddle = groupMiddle.getPuzzlepieces().get(0);
+
+        groups.get(0).setPosition(123, 45);
+        groupMiddle.setPosition(200, 300);
+        groupMiddle.addFromPuzzlepieceGroup(groups.get(3), pieceMiddle.getConnectorForDirection(ConnectorPosition.LEFT));
+        groups.get(3).destroy();
+        groupMiddle.addFromPuzzlepieceGroup(groups.get(1), pieceMiddle.getConnectorForDirection(ConnectorPosition.TOP));
+        groups.get(1).destroy();
+
+        instance.stopAutosave();
+        instance.setPuzzle(null);
+        instance.recoverPuzzle(testFile);
+
+        assertTrue(puzzle.equals(instance.getPuzzle()));
+        assertEquals(7, instance.getPuzzle().getPuzzlepieceGroups().size());
+        assertEquals(123, instance.getPuzzle().getPuzzlepieceGroups().get(0).getX());
+    }
+
+    @Test
+    public void testRecoverPuzzle_compactedTwice() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File puzzleFile = new File(puzzlename);
+        File testFile = new File(autosavename);
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        instance.savePuzzle(puzzleFile);
+        instance.startAutosave(testFile);
+
+        // the second snapshot is taken, before the first one may be written
+        instance.loadPuzzle(puzzleFile);
+        instance.getPuzzle().getPuzzlepieceGroups().get(0).setPosition(123, 45);
+
+        instance.stopAutosave();
+        instance.setPuzzle(null);
+        instance.recoverPuzzle(testFile);
+
+        assertEquals(9, instance.getPuzzle().getPuzzlepieceGroups().size());
+        assertEquals(123, instance.getPuzzle().getPuzzlepieceGroups().get(0).getX());
+        assertEquals(45, instance.getPuzzle().getPuzzlepieceGroups().get(0).getY());
+    }
+
+    @Test
+    public void testRecoverPuzzle_shuffled() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(autosavename);
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        instance.startAutosave(testFile);
+
+        puzzle.shufflePuzzlepieces();
+        List<Point> positions = new ArrayList<>();
+        for (PuzzlepieceGroup group : puzzle.getPuzzlepieceGroups()) {
+            positions.add(new Point(group.getX(), group.getY()));
+        }
+        instance.stopAutosave();
+        instance.setPuzzle(null);
+        instance.recoverPuzzle(testFile);
+
+        assertEquals(positions.size(), instance.getPuzzle().getPuzzlepieceGroups().size());
+        for (int i = 0; i < positions.size(); i++) {
+            PuzzlepieceGroup group = instance.getPuzzle().getPuzzlepieceGroups().get(i);
+            assertEquals(positions.get(i), new Point(group.getX(), group.getY()));
+        }
+    }
+
+    @Test
+    public void testRecoverPuzzle_incompleteJournal() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(autosavename);
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        instance.startAutosave(testFile);
+        PuzzlepieceGroup group = puzzle.getPuzzlepieceGroups().get(0);
+
+        group.setPosition(10, 20);
+        group.setPosition(30, 40);
+        instance.stopAutosave();
+
+        // cut the last record, as if the program was killed while writing it
+        try (RandomAccessFile journal = new RandomAccessFile(autosavename + ".journal", "rw")) {
+            journal.setLength(journal.length() - 1);
+        }
+        instance.setPuzzle(null);
+        instance.recoverPuzzle(testFile);
+
+        assertEquals(10, instance.getPuzzle().getPuzzlepieceGroups().get(0).getX());
+        assertEquals(20, instance.getPuzzle().getPuzzlepieceGroups().get(0).getY());
+    }
+
+    @Test
+    public void testLoadPuzzle_xmlFromDom() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+
+        // save the puzzle as the old versions did, but with whitespaces between the elements
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = doc.createElement("jigspuzzle");
+        doc.appendChild(root);
+        puzzle.saveToFile(doc, root);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(doc), new StreamResult(testFile));
+
+        instance.setPuzzle(null);
+        instance.loadPuzzle(testFile);
+
+        assertTrue(puzzle.equals(instance.getPuzzle()));
+    }
+
+    @Test
+    public void testLoadPuzzle_xml() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        File testFile = new File(puzzlename);
+        PuzzleController instance = PuzzleController.getInstance();
+
+        instance.setPuzzle(puzzle);
+        instance.savePuzzleAsXml(testFile);
+        instance.setPuzzle(null);
+        instance.loadPuzzle(testFile);
+
+        assertTrue(puzzle.equals(instance.getPuzzle()));
+    }
+
+    @Test
+    public void testTrySnapPuzzlepieceGroup() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        Dimension pieceSize = SettingsController.getInstance().getPuzzlepieceSize();
+        List<PuzzlepieceGroup> groups = puzzle.getPuzzlepieceGroups();
+
+        // put all groups far away from each other
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).setPosition(3 * pieceSize.width * i, 0);
+        }
+        PuzzlepieceGroup groupLeft = groups.get(0);
+        PuzzlepieceGroup groupRight = groups.get(1);
+
+        groupRight.setPosition(groupLeft.getX() + pieceSize.width + 1, groupLeft.getY() - 1);
+        instance.trySnapPuzzlepieceGroup(groupRight);
+
+        assertEquals(groups.size() - 1, puzzle.getPuzzlepieceGroups().size());
+        assertFalse(groupRight.isInPuzzle());
+        assertEquals(2, groupLeft.getPuzzlepieces().size());
+    }
+
+    @Test
+    public void testTrySnapPuzzlepieceGroup_tooFarAway() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzleController instance = PuzzleController.getInstance();
+        instance.setPuzzle(puzzle);
+        Dimension pieceSize = SettingsController.getInstance().getPuzzlepieceSize();
+        List<PuzzlepieceGroup> groups = puzzle.getPuzzlepieceGroups();
+
+        // put all groups far away from each other
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).setPosition(3 * pieceSize.width * i, 0);
+        }
+        instance.trySnapPuzzlepieceGroup(groups.get(1));
+
+        assertEquals(groups.size(), puzzle.getPuzzlepieceGroups().size());
+        assertTrue(groups.get(1).isInPuzzle());
     }
 
     @Test
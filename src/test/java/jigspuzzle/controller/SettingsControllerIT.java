@@ -4,11 +4,15 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Observable;
 import jigspuzzle.JigSPuzzle;
+import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.testutils.factories.FactorySlave;
 import jigspuzzle.testutils.mockups.DummyMultiMonitorPuzzleWindow;
 import jigspuzzle.testutils.mockups.DummyPuzzleWindow;
 import org.junit.After;
@@ -328,6 +332,37 @@ public class SettingsControllerIT {
         assertTrue(result.contains(replace));
     }
 
+    @Test
+    public void testGetPuzzleareaGeometry() throws Exception {
+        SettingsController instance = SettingsController.getInstance();
+        instance.setDecreasePuzzleAutomatically(true);
+        instance.setUsedSizeOfPuzzlearea(1);
+        JigSPuzzle.getInstance().setPuzzleWindow(new DummyPuzzleWindow(1500, 1000));
+        PuzzleController.getInstance().setPuzzle((Puzzle) FactorySlave.build(Puzzle.class).create());
+
+        PuzzleareaGeometry geometry = instance.getPuzzleareaGeometry();
+        assertSame(geometry, instance.getPuzzleareaGeometry());
+        assertEquals(geometry.getPuzzlepieceSize(), instance.getPuzzlepieceSize());
+        assertEquals(geometry.getPuzzlepieceWidth() / 2, geometry.getConnectorSizeLeftRight());
+        assertArrayEquals(new Rectangle[]{new Rectangle(0, 0, 1500, 1000)}, geometry.getScreens());
+        assertTrue(geometry.isOnScreens(new Rectangle(100, 100, 200, 200)));
+        assertFalse(geometry.isOnScreens(new Rectangle(1400, 100, 200, 200)));
+
+        List<Dimension> observedSizes = new ArrayList<>();
+        instance.addPuzzleareaSettingsObserver((Observable o, Object arg) -> {
+            observedSizes.add(instance.getPuzzlepieceSize());
+        });
+        instance.setUsedSizeOfPuzzlearea(0.5);
+        assertNotSame(geometry, instance.getPuzzleareaGeometry());
+        assertEquals(instance.getPuzzlepieceSize(), observedSizes.get(0));
+        assertNotEquals(geometry.getPuzzlepieceSize(), observedSizes.get(0));
+
+        geometry = instance.getPuzzleareaGeometry();
+        JigSPuzzle.getInstance().setPuzzleWindow(new DummyPuzzleWindow(3000, 2000));
+        assertNotSame(geometry, instance.getPuzzleareaGeometry());
+        assertArrayEquals(new Rectangle[]{new Rectangle(0, 0, 3000, 2000)}, instance.getPuzzleareaGeometry().getScreens());
+    }
+
     @Test
     public void testGetAvailableLanguages() {
         SettingsController instance = SettingsController.getInstance();
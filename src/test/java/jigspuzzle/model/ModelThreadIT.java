@@ -0,0 +1,60 @@
+package jigspuzzle.model;
+
+import java.awt.EventQueue;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ModelThreadIT {
+
+    public ModelThreadIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testInvokeAndGet() {
+        assertFalse(ModelThread.isModelThread());
+        assertTrue(ModelThread.invokeAndGet(() -> EventQueue.isDispatchThread()));
+    }
+
+    @Test
+    public void testInvokeAndWait_nested() {
+        boolean[] changed = new boolean[1];
+
+        ModelThread.invokeAndWait(() -> {
+            // a change on the model thread is run directly
+            ModelThread.invokeAndWait(() -> {
+                changed[0] = ModelThread.isModelThread();
+            });
+        });
+
+        assertTrue(changed[0]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvokeAndWait_exception() throws IOException {
+        ModelThread.invokeAndWait(() -> {
+            throw new IOException();
+        });
+    }
+
+}
@@ -1,6 +1,18 @@
 package jigspuzzle.model.puzzle;
 
+import java.awt.EventQueue;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import jigspuzzle.JigSPuzzle;
+import jigspuzzle.controller.PuzzleController;
+import jigspuzzle.model.ModelThread;
 import jigspuzzle.testutils.factories.FactorySlave;
+import jigspuzzle.testutils.mockups.DummyPuzzleWindow;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -23,10 +35,67 @@ public class PuzzleIT {
 
     @Before
     public void setUp() {
+        JigSPuzzle.getInstance().setPuzzleWindow(new DummyPuzzleWindow());
     }
 
     @After
     public void tearDown() {
+        JigSPuzzle.getInstance().resetInstances();
+    }
+
+    @Test
+    public void testAddPuzzlepieceGroupListener() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzleController.getInstance().setPuzzle(puzzle);
+        Puzzlepiece pieceThis = puzzle.puzzlepieces[1][1];
+        Puzzlepiece pieceOther = puzzle.puzzlepieces[1][2];
+        PuzzlepieceGroup groupThis = pieceThis.getPuzzlepieceGroup();
+        PuzzlepieceGroup groupOther = pieceOther.getPuzzlepieceGroup();
+        List<List<PuzzlepieceGroupEvent>> deliveries = new ArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        puzzle.addPuzzlepieceGroupListener((List<PuzzlepieceGroupEvent> events) -> {
+            deliveries.add(events);
+            delivered.countDown();
+        });
+        ModelThread.invokeAndWait(() -> {
+            groupThis.setPosition(10, 20);
+            groupThis.setPosition(30, 40);
+            groupThis.addFromPuzzlepieceGroup(groupOther, pieceThis.getConnectorForDirection(ConnectorPosition.RIGHT));
+            groupOther.destroy();
+            groupThis.setPosition(50, 60);
+        });
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        EventQueue.invokeAndWait(() -> {
+        });
+        assertEquals(1, deliveries.size());
+
+        // the moves of a group in one frame are delivered as one move
+        List<PuzzlepieceGroupEvent> events = deliveries.get(0);
+        assertEquals(3, events.size());
+        assertEquals(PuzzlepieceGroupEvent.Type.MOVED, events.get(0).getType());
+        assertSame(groupThis, events.get(0).getGroup());
+        assertEquals(50, events.get(0).getX());
+        assertEquals(60, events.get(0).getY());
+        assertEquals(PuzzlepieceGroupEvent.Type.MERGED, events.get(1).getType());
+        assertSame(groupOther, events.get(1).getOtherGroup());
+        assertEquals(PuzzlepieceGroupEvent.Type.DESTROYED, events.get(2).getType());
+        assertSame(groupOther, events.get(2).getGroup());
+    }
+
+    @Test
+    public void testNewPuzzle_piecesSharePixels() {
+        BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB);
+        Puzzle puzzle = new Puzzle(image, 2, 3, 100, 100);
+        BufferedImage pieceImage = puzzle.puzzlepieces[1][2].getImage();
+
+        // the pieces are views into the image of the puzzle and are not copied
+        assertSame(image.getRaster().getDataBuffer(), pieceImage.getRaster().getDataBuffer());
+        assertEquals(100, pieceImage.getWidth());
+        assertEquals(100, pieceImage.getHeight());
+        image.setRGB(210, 110, 0xff123456);
+        assertEquals(0xff123456, pieceImage.getRGB(10, 10));
     }
 
     @Test
@@ -39,4 +108,43 @@ public class PuzzleIT {
         assertFalse(puzzle.getPuzzlepieceGroups().contains(group));
     }
 
+    @Test
+    public void testSeed() throws Exception {
+        BufferedImage image = ImageIO.read(new File("../src/test/images/test_puzzle.jpg"));
+        Puzzle puzzle1 = new Puzzle(image, 4, 5, 20, 20, 42);
+        Puzzle puzzle2 = new Puzzle(image, 4, 5, 20, 20, 42);
+
+        assertEquals(42, puzzle1.getSeed());
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 5; column++) {
+                for (ConnectorPosition position : ConnectorPosition.values()) {
+                    Puzzlepiece piece1 = puzzle1.puzzlepieces[row][column];
+                    Puzzlepiece piece2 = puzzle2.puzzlepieces[row][column];
+
+                    assertEquals(piece1.getConnectorForDirection(position), piece2.getConnectorForDirection(position));
+                    assertEquals(piece1.isInPieceInDirection(position), piece2.isInPieceInDirection(position));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSeed_shuffle() throws Exception {
+        BufferedImage image = ImageIO.read(new File("../src/test/images/test_puzzle.jpg"));
+        Puzzle puzzle1 = new Puzzle(image, 4, 5, 20, 20, 42);
+        Puzzle puzzle2 = new Puzzle(image, 4, 5, 20, 20, 42);
+
+        PuzzleController.getInstance().setPuzzle(puzzle1);
+        puzzle1.shufflePuzzlepieces();
+        PuzzleController.getInstance().setPuzzle(puzzle2);
+        puzzle2.shufflePuzzlepieces();
+
+        List<PuzzlepieceGroup> groups1 = puzzle1.getPuzzlepieceGroups();
+        List<PuzzlepieceGroup> groups2 = puzzle2.getPuzzlepieceGroups();
+        for (int i = 0; i < groups1.size(); i++) {
+            assertEquals(groups1.get(i).getX(), groups2.get(i).getX());
+            assertEquals(groups1.get(i).getY(), groups2.get(i).getY());
+        }
+    }
+
 }
@@ -0,0 +1,177 @@
+package jigspuzzle.model.puzzle;
+
+import jigspuzzle.testutils.factories.FactorySlave;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PuzzlepieceGridIT {
+
+    public PuzzlepieceGridIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private Puzzlepiece createPiece() throws ClassNotFoundException {
+        return (Puzzlepiece) FactorySlave.build(Puzzlepiece.class).create();
+    }
+
+    private void assertPosition(PuzzlepieceGrid grid, Puzzlepiece piece, int row, int column) {
+        assertTrue(grid.contains(piece));
+        assertEquals(row, grid.getRow(piece));
+        assertEquals(column, grid.getColumn(piece));
+        assertSame(piece, grid.get(row, column));
+    }
+
+    @Test
+    public void testSet_growToTopAndLeft() throws ClassNotFoundException {
+        PuzzlepieceGrid grid = new PuzzlepieceGrid();
+        Puzzlepiece piece1 = createPiece();
+        Puzzlepiece piece2 = createPiece();
+        Puzzlepiece piece3 = createPiece();
+
+        grid.set(0, 0, piece1);
+        grid.set(0, 1, piece2);
+        assertPosition(grid, piece1, 0, 0);
+        assertPosition(grid, piece2, 0, 1);
+
+        // grow 2 rows to the top and 1 column to the left
+        assertNull(grid.set(-2, -1, piece3));
+
+        assertEquals(3, grid.getRowCount());
+        assertEquals(3, grid.getColumnCount());
+        assertEquals(3, grid.getSize());
+        assertPosition(grid, piece3, 0, 0);
+        assertPosition(grid, piece1, 2, 1);
+        assertPosition(grid, piece2, 2, 2);
+        assertNull(grid.get(1, 1));
+        assertNull(grid.get(-1, 0));
+        assertNull(grid.get(3, 0));
+    }
+
+    @Test
+    public void testSet_replace() throws ClassNotFoundException {
+        PuzzlepieceGrid grid = new PuzzlepieceGrid();
+        Puzzlepiece piece1 = createPiece();
+        Puzzlepiece piece2 = createPiece();
+
+        grid.set(1, 1, piece1);
+        assertSame(piece1, grid.set(1, 1, piece2));
+
+        assertEquals(1, grid.getSize());
+        assertFalse(grid.contains(piece1));
+        assertEquals(-1, grid.getRow(piece1));
+        assertEquals(-1, grid.getColumn(piece1));
+        assertPosition(grid, piece2, 1, 1);
+    }
+
+    @Test
+    public void testAddAll_negativeOffsets() throws ClassNotFoundException {
+        PuzzlepieceGrid grid = new PuzzlepieceGrid();
+        PuzzlepieceGrid other = new PuzzlepieceGrid();
+        Puzzlepiece piece = createPiece();
+        Puzzlepiece otherPiece1 = createPiece();
+        Puzzlepiece otherPiece2 = createPiece();
+
+        grid.set(0, 0, piece);
+        other.set(0, 0, otherPiece1);
+        other.set(1, 1, otherPiece2);
+
+        // the other grid starts one row above and two columns left of this grid
+        grid.addAll(other, -1, -2);
+
+        assertEquals(2, grid.getRowCount());
+        assertEquals(3, grid.getColumnCount());
+        assertEquals(3, grid.getSize());
+        assertPosition(grid, otherPiece1, 0, 0);
+        assertPosition(grid, otherPiece2, 1, 1);
+        assertPosition(grid, piece, 1, 2);
+    }
+
+    @Test
+    public void testAddAll_positiveOffsets() throws ClassNotFoundException {
+        PuzzlepieceGrid grid = new PuzzlepieceGrid();
+        PuzzlepieceGrid other = new PuzzlepieceGrid();
+        Puzzlepiece piece = createPiece();
+        Puzzlepiece otherPiece = createPiece();
+
+        grid.set(0, 0, piece);
+        other.set(0, 0, otherPiece);
+        grid.addAll(other, 2, 1);
+
+        assertEquals(3, grid.getRowCount());
+        assertEquals(2, grid.getColumnCount());
+        assertPosition(grid, piece, 0, 0);
+        assertPosition(grid, otherPiece, 2, 1);
+    }
+
+    @Test
+    public void testGetRowAndColumn_afterReallocations() throws ClassNotFoundException {
+        PuzzlepieceGrid grid = new PuzzlepieceGrid();
+        Puzzlepiece first = createPiece();
+        Puzzlepiece[] topLeft = new Puzzlepiece[11];
+        Puzzlepiece[] bottomRight = new Puzzlepiece[11];
+
+        // grow at both corners, so that the array is copied several times
+        // and the origin moves
+        grid.set(0, 0, first);
+        for (int i = 1; i <= 10; i++) {
+            topLeft[i] = createPiece();
+            bottomRight[i] = createPiece();
+            grid.set(-1, -1, topLeft[i]);
+            grid.set(grid.getRowCount(), grid.getColumnCount(), bottomRight[i]);
+        }
+
+        assertEquals(21, grid.getRowCount());
+        assertEquals(21, grid.getColumnCount());
+        assertEquals(21, grid.getSize());
+        assertEquals(21, grid.getPuzzlepieces().size());
+        assertPosition(grid, first, 10, 10);
+        for (int i = 1; i <= 10; i++) {
+            assertPosition(grid, topLeft[i], 10 - i, 10 - i);
+            assertPosition(grid, bottomRight[i], 10 + i, 10 + i);
+        }
+        assertNull(grid.get(0, 20));
+        assertNull(grid.get(20, 0));
+    }
+
+    @Test
+    public void testClear() throws ClassNotFoundException {
+        PuzzlepieceGrid grid = new PuzzlepieceGrid();
+        Puzzlepiece piece = createPiece();
+
+        grid.set(-3, -3, createPiece());
+        grid.set(2, 2, piece);
+        grid.clear();
+
+        assertTrue(grid.isEmpty());
+        assertEquals(0, grid.getRowCount());
+        assertEquals(0, grid.getColumnCount());
+        assertFalse(grid.contains(piece));
+        assertNull(grid.get(0, 0));
+        assertTrue(grid.getPuzzlepieces().isEmpty());
+
+        // the grid can be used again
+        grid.set(1, 0, piece);
+        assertEquals(2, grid.getRowCount());
+        assertPosition(grid, piece, 1, 0);
+    }
+
+}
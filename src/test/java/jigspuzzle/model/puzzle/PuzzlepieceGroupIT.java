@@ -285,6 +285,49 @@ public class PuzzlepieceGroupIT {
         }
     }
 
+    @Test
+    public void testGetPuzzlepieceConnectionsInPosition_border() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        Puzzlepiece piece = puzzle.puzzlepieces[0][0];
+        PuzzlepieceGroup group = piece.getPuzzlepieceGroup();
+
+        // there are no connections outside of the puzzle
+        assertTrue(group.getPuzzlepieceConnectionsInPosition(ConnectorPosition.TOP).isEmpty());
+        assertTrue(group.getPuzzlepieceConnectionsInPosition(ConnectorPosition.LEFT).isEmpty());
+        assertSame(piece.getConnectorForDirection(ConnectorPosition.RIGHT), group.getPuzzlepieceConnectionsInPosition(ConnectorPosition.RIGHT).get(0));
+        assertSame(piece.getConnectorForDirection(ConnectorPosition.BUTTOM), group.getPuzzlepieceConnectionsInPosition(ConnectorPosition.BUTTOM).get(0));
+    }
+
+    @Test
+    public void testGetPuzzlepieceConnectionsInPosition_afterMerge() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzleController.getInstance().setPuzzle(puzzle);
+        Puzzlepiece pieceThis = puzzle.puzzlepieces[1][0];
+        Puzzlepiece pieceOther = puzzle.puzzlepieces[1][1];
+        PuzzlepieceGroup groupThis = pieceThis.getPuzzlepieceGroup();
+        PuzzlepieceGroup groupOther = pieceOther.getPuzzlepieceGroup();
+
+        groupThis.addFromPuzzlepieceGroup(groupOther, pieceThis.getConnectorForDirection(ConnectorPosition.RIGHT));
+
+        // the connection between the merged pieces is not open anymore
+        List<PuzzlepieceConnection> right = groupThis.getPuzzlepieceConnectionsInPosition(ConnectorPosition.RIGHT);
+
+        assertEquals(1, right.size());
+        assertSame(pieceOther.getConnectorForDirection(ConnectorPosition.RIGHT), right.get(0));
+        assertTrue(groupThis.getPuzzlepieceConnectionsInPosition(ConnectorPosition.LEFT).isEmpty());
+        assertEquals(2, groupThis.getPuzzlepieceConnectionsInPosition(ConnectorPosition.TOP).size());
+    }
+
+    @Test
+    public void testGetPuzzlepieceConnectionsInPosition_copy() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzlepieceGroup group = puzzle.puzzlepieces[1][1].getPuzzlepieceGroup();
+
+        group.getPuzzlepieceConnectionsInPosition(ConnectorPosition.TOP).clear();
+
+        assertEquals(1, group.getPuzzlepieceConnectionsInPosition(ConnectorPosition.TOP).size());
+    }
+
     @Test
     public void testSetPosition() throws ClassNotFoundException {
         PuzzlepieceGroup instance = (PuzzlepieceGroup) FactorySlave.build(PuzzlepieceGroup.class).create();
@@ -330,4 +373,30 @@ public class PuzzlepieceGroupIT {
         assertTrue(groupThis.isPuzzlepieceContained(pieceOther));
     }
 
+    @Test
+    public void testIsPuzzlepieceContained_notContained() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzleController.getInstance().setPuzzle(puzzle);
+        Puzzlepiece pieceThis, pieceOther, pieceThird;
+        PuzzlepieceGroup groupThis, groupOther;
+
+        pieceThis = puzzle.puzzlepieces[0][1];
+        pieceOther = puzzle.puzzlepieces[0][0];
+        pieceThird = puzzle.puzzlepieces[1][1];
+
+        groupThis = pieceThis.getPuzzlepieceGroup();
+        groupOther = pieceOther.getPuzzlepieceGroup();
+
+        assertFalse(groupThis.isPuzzlepieceContained(pieceOther));
+        assertEquals(-1, groupThis.getXPositionOfPieceInGroup(pieceOther));
+        assertEquals(-1, groupThis.getYPositionOfPieceInGroup(pieceOther));
+
+        groupThis.addFromPuzzlepieceGroup(groupOther, pieceThis.getConnectorForDirection(ConnectorPosition.LEFT));
+        groupOther.destroy();
+
+        assertFalse(groupOther.isPuzzlepieceContained(pieceOther));
+        assertFalse(groupThis.isPuzzlepieceContained(pieceThird));
+        assertEquals(-1, groupThis.getXPositionOfPieceInGroup(pieceThird));
+    }
+
 }
@@ -0,0 +1,97 @@
+package jigspuzzle.util;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ImageUtilIT {
+
+    private static final File IMAGE_FILE = new File("../src/test/images/test_puzzle.jpg");
+
+    public ImageUtilIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testReadImage() throws IOException {
+        BufferedImage expResult = ImageIO.read(IMAGE_FILE);
+
+        BufferedImage result = ImageUtil.readImage(IMAGE_FILE, null);
+
+        assertTrue(ImageUtil.imagesAreEqual(expResult, result));
+    }
+
+    @Test
+    public void testReadImage_subsampled() throws IOException {
+        BufferedImage fullImage = ImageIO.read(IMAGE_FILE);
+        Dimension maxSize = new Dimension(fullImage.getWidth() / 3, fullImage.getHeight() / 4);
+
+        BufferedImage result = ImageUtil.readImage(IMAGE_FILE, maxSize);
+
+        assertTrue(result.getWidth() < fullImage.getWidth());
+        assertTrue(result.getHeight() < fullImage.getHeight());
+        assertTrue(result.getWidth() >= maxSize.width || result.getHeight() >= maxSize.height);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadImage_noImage() throws IOException {
+        ImageUtil.readImage(new File("../pom.xml"), null);
+    }
+
+    @Test
+    public void testGetSubsampling() {
+        assertEquals(1, ImageUtil.getSubsampling(1000, 800, null));
+        assertEquals(1, ImageUtil.getSubsampling(1000, 800, new Dimension(1920, 1080)));
+        assertEquals(27, ImageUtil.getSubsampling(20000, 30000, new Dimension(1920, 1080)));
+    }
+
+    @Test
+    public void testWritePngStrips() throws IOException {
+        BufferedImage image = ImageIO.read(IMAGE_FILE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<Integer> progress = new ArrayList<>();
+
+        ImageUtil.writePngStrips(image, new DataOutputStream(bytes), progress::add);
+        BufferedImage result = ImageUtil.readPngStrips(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(progress.size() > 1);
+        assertEquals(100, (int) progress.get(progress.size() - 1));
+        assertEquals(image.getWidth(), result.getWidth());
+        assertEquals(image.getHeight(), result.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y), result.getRGB(x, y));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package jigspuzzle.util;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PlacementUtilIT {
+
+    public PlacementUtilIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testPlaceRectangles_noOverlap() {
+        Rectangle[] areas = new Rectangle[]{new Rectangle(0, 0, 800, 600), new Rectangle(800, 100, 400, 300)};
+        Dimension spacing = new Dimension(20, 20);
+        Dimension[] sizes = new Dimension[200];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = i % 10 == 0 ? new Dimension(40, 60) : new Dimension(20, 20);
+        }
+
+        Point[] positions = PlacementUtil.placeRectangles(sizes, areas, spacing, new Random(42));
+
+        for (int i = 0; i < sizes.length; i++) {
+            Rectangle rect = new Rectangle(positions[i], sizes[i]);
+            assertTrue(areas[0].contains(rect) || areas[1].contains(rect));
+
+            rect.grow(spacing.width / 2, spacing.height / 2);
+            for (int j = i + 1; j < sizes.length; j++) {
+                Rectangle other = new Rectangle(positions[j], sizes[j]);
+                other.grow(spacing.width / 2, spacing.height / 2);
+                assertFalse(rect.intersects(other));
+            }
+        }
+    }
+
+    @Test
+    public void testPlaceRectangles_notEnoughSpace() {
+        Rectangle[] areas = new Rectangle[]{new Rectangle(0, 0, 100, 100)};
+        Dimension[] sizes = new Dimension[100];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = new Dimension(20, 20);
+        }
+
+        Point[] positions = PlacementUtil.placeRectangles(sizes, areas, new Dimension(20, 20), new Random(42));
+
+        for (int i = 0; i < sizes.length; i++) {
+            assertTrue(areas[0].contains(new Rectangle(positions[i], sizes[i])));
+        }
+    }
+
+    @Test
+    public void testPlaceRectangles_noArea() {
+        Dimension[] sizes = new Dimension[]{new Dimension(20, 20), new Dimension(40, 10)};
+
+        Point[] positions = PlacementUtil.placeRectangles(sizes, new Rectangle[0], new Dimension(20, 20), new Random(42));
+
+        assertEquals(sizes.length, positions.length);
+        for (Point position : positions) {
+            assertEquals(new Point(0, 0), position);
+        }
+    }
+
+    @Test
+    public void testPlaceRectangles_seed() {
+        Rectangle[] areas = new Rectangle[]{new Rectangle(0, 0, 800, 600)};
+        Dimension[] sizes = new Dimension[50];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = new Dimension(30, 30);
+        }
+
+        Point[] positions1 = PlacementUtil.placeRectangles(sizes, areas, new Dimension(30, 30), new Random(42));
+        Point[] positions2 = PlacementUtil.placeRectangles(sizes, areas, new Dimension(30, 30), new Random(42));
+
+        assertArrayEquals(positions1, positions2);
+    }
+
+}
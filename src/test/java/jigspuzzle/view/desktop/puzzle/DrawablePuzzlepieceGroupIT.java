@@ -0,0 +1,115 @@
+package jigspuzzle.view.desktop.puzzle;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import jigspuzzle.JigSPuzzle;
+import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.model.puzzle.Puzzlepiece;
+import jigspuzzle.model.puzzle.PuzzlepieceGroup;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DrawablePuzzlepieceGroupIT {
+
+    public DrawablePuzzlepieceGroupIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+        // reset all controllers
+        JigSPuzzle.getInstance().resetInstances();
+    }
+
+    /**
+     * Creates a view, in which the puzzlepieces have a size of 100 x 100.
+     */
+    private DrawablePuzzlepieceGroup createView(PuzzlepieceGroup group) {
+        DrawablePuzzlepieceGroup view = new DrawablePuzzlepieceGroup(group) {
+
+            @Override
+            protected Dimension getPuzzleareaSize() {
+                return new Dimension(1000, 1000);
+            }
+
+            @Override
+            protected Point getPuzzleareaStart() {
+                return new Point(0, 0);
+            }
+
+            @Override
+            protected int getPuzzlepieceHeight() {
+                return 100;
+            }
+
+            @Override
+            protected int getPuzzlepieceWidth() {
+                return 100;
+            }
+
+        };
+
+        view.setSize(view.getWidthOfThisGroup(), view.getHeightOfThisGroup());
+        return view;
+    }
+
+    @Test
+    public void testContains_transparentImage() {
+        BufferedImage image = new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB);
+        Puzzle puzzle = new Puzzle(image, 3, 3, 100, 100);
+        DrawablePuzzlepieceGroup view = createView(puzzle.getPuzzlepieceGroups().get(4));
+
+        // the puzzlepiece starts at (50,50) and has its connectors in the middle of its sides
+        assertTrue(view.contains(100, 100));
+        assertTrue(view.contains(52, 52));
+        assertFalse(view.contains(48, 48));
+        assertFalse(view.contains(148, 48));
+    }
+
+    @Test
+    public void testPaintComponent_sprite() {
+        BufferedImage image = new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D imageGraphics = image.createGraphics();
+        imageGraphics.setColor(Color.RED);
+        imageGraphics.fillRect(0, 0, 300, 300);
+        imageGraphics.dispose();
+        Puzzle puzzle = new Puzzle(image, 3, 3, 100, 100);
+        Puzzlepiece piece = puzzle.getPuzzlepieceGroups().get(4).getPuzzlepieces().get(0);
+        DrawablePuzzlepieceGroup view = createView(piece.getPuzzlepieceGroup());
+        BufferedImage result = new BufferedImage(view.getWidth(), view.getHeight(), BufferedImage.TYPE_INT_ARGB);
+
+        PuzzlepieceImageCache.getInstance().clear();
+        Graphics2D g = result.createGraphics();
+        view.paintComponent(g);
+        g.dispose();
+
+        // the puzzlepiece is painted from its sprite, that stays in the cache
+        assertEquals(Color.RED.getRGB(), result.getRGB(100, 100));
+        assertEquals(0, result.getRGB(10, 10));
+        BufferedImage sprite = PuzzlepieceImageCache.getInstance().getSprite(piece, 100, 100, (Puzzlepiece p) -> {
+            fail("The sprite must be rendered only once");
+            return null;
+        });
+        assertEquals(Color.RED.getRGB(), sprite.getRGB(100, 100));
+        assertEquals(0, sprite.getRGB(10, 10));
+    }
+
+}
@@ -0,0 +1,210 @@
+package jigspuzzle.view.desktop.puzzle;
+
+import java.awt.Point;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jigspuzzle.JigSPuzzle;
+import jigspuzzle.controller.PuzzleController;
+import jigspuzzle.controller.SettingsController;
+import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.model.puzzle.PuzzlepieceGroup;
+import jigspuzzle.testutils.factories.FactorySlave;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PuzzleSceneIT {
+
+    private Puzzle puzzle;
+
+    public PuzzleSceneIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzleController.getInstance().setPuzzle(puzzle);
+    }
+
+    @After
+    public void tearDown() {
+        // reset all controllers
+        JigSPuzzle.getInstance().resetInstances();
+    }
+
+    /**
+     * Creates a view, that is hit everywhere in its bounds.
+     */
+    private PuzzlepieceView createView(int groupIndex, int x, int y, int width, int height) {
+        PuzzlepieceGroup group = puzzle.getPuzzlepieceGroups().get(groupIndex);
+        PuzzlepieceView view = new PuzzlepieceView(null, group) {
+
+            @Override
+            public boolean contains(int x, int y) {
+                return x >= 0 && y >= 0 && x < getWidth() && y < getHeight();
+            }
+
+            @Override
+            protected void updateViewLocation() {
+                // the bounds are set by the test and not moved to the group later
+            }
+
+        };
+
+        view.setBounds(x, y, width, height);
+        return view;
+    }
+
+    @Test
+    public void testGetViewAt_zOrder() {
+        PuzzleScene scene = new PuzzleScene();
+        PuzzlepieceView back = createView(0, 0, 0, 200, 200);
+        PuzzlepieceView front = createView(1, 100, 100, 200, 200);
+
+        scene.addView(back);
+        scene.addView(front);
+
+        assertSame(back, scene.getViewAt(50, 50));
+        assertSame(front, scene.getViewAt(150, 150));
+        assertSame(front, scene.getViewAt(250, 250));
+        assertNull(scene.getViewAt(350, 350));
+
+        scene.bringToFront(back);
+        assertSame(back, scene.getViewAt(150, 150));
+        assertSame(front, scene.getViewAt(250, 250));
+    }
+
+    @Test
+    public void testGetViewAt_negativeCoordinates() {
+        PuzzleScene scene = new PuzzleScene();
+        PuzzlepieceView view = createView(0, -300, -50, 100, 100);
+        PuzzlepieceView centerView = createView(1, -10, -10, 20, 20);
+
+        scene.addView(view);
+        scene.addView(centerView);
+
+        assertSame(view, scene.getViewAt(-300, -50));
+        assertSame(view, scene.getViewAt(-201, 49));
+        assertNull(scene.getViewAt(-200, 0));
+        assertNull(scene.getViewAt(-301, 0));
+        assertNull(scene.getViewAt(-250, 50));
+
+        // the view lays in four cells around the origin
+        assertSame(centerView, scene.getViewAt(-1, -1));
+        assertSame(centerView, scene.getViewAt(-10, 9));
+        assertSame(centerView, scene.getViewAt(9, -10));
+        assertSame(centerView, scene.getViewAt(9, 9));
+        assertNull(scene.getViewAt(10, 0));
+        assertNull(scene.getViewAt(0, -11));
+    }
+
+    @Test
+    public void testUpdateView() {
+        PuzzleScene scene = new PuzzleScene();
+        PuzzlepieceView view = createView(0, 0, 0, 100, 100);
+
+        scene.addView(view);
+        view.setBounds(-500, 300, 100, 100);
+
+        // the index is not updated yet
+        assertNull(scene.getViewAt(-450, 350));
+
+        scene.updateView(view);
+        assertNull(scene.getViewAt(50, 50));
+        assertSame(view, scene.getViewAt(-450, 350));
+
+        // the view moves within its cells
+        view.setBounds(-490, 310, 100, 100);
+        scene.updateView(view);
+        assertNull(scene.getViewAt(-495, 350));
+        assertSame(view, scene.getViewAt(-395, 405));
+    }
+
+    @Test
+    public void testRemoveView() {
+        PuzzleScene scene = new PuzzleScene();
+        PuzzlepieceView back = createView(0, 0, 0, 200, 200);
+        PuzzlepieceView front = createView(1, 0, 0, 200, 200);
+
+        scene.addView(back);
+        scene.addView(front);
+        assertSame(front, scene.getViewAt(100, 100));
+
+        scene.removeView(front);
+        assertSame(back, scene.getViewAt(100, 100));
+
+        // a removed view is not indexed again
+        scene.updateView(front);
+        assertSame(back, scene.getViewAt(100, 100));
+
+        scene.removeAllViews();
+        assertNull(scene.getViewAt(100, 100));
+    }
+
+    @Test
+    public void testMouseEvents_clickedAndMoved() {
+        PuzzleScene scene = new PuzzleScene();
+        PuzzlepieceView back = createView(0, 0, 0, 200, 200);
+        PuzzlepieceView front = createView(1, 100, 100, 200, 200);
+        List<Point> clicks = new ArrayList<>();
+        List<Point> moves = new ArrayList<>();
+        MouseAdapter listener = new MouseAdapter() {
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                clicks.add(e.getPoint());
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                moves.add(e.getPoint());
+            }
+
+        };
+
+        scene.addView(back);
+        scene.addView(front);
+        front.addMouseListener(listener);
+        front.addMouseMotionListener(listener);
+        for (MouseListener sceneListener : scene.getMouseListeners()) {
+            sceneListener.mouseClicked(new MouseEvent(scene, MouseEvent.MOUSE_CLICKED, 0, 0, 150, 160, 1, false, MouseEvent.BUTTON1));
+        }
+        for (MouseMotionListener sceneListener : scene.getMouseMotionListeners()) {
+            sceneListener.mouseMoved(new MouseEvent(scene, MouseEvent.MOUSE_MOVED, 0, 0, 250, 120, 0, false));
+            sceneListener.mouseMoved(new MouseEvent(scene, MouseEvent.MOUSE_MOVED, 0, 0, 50, 50, 0, false));
+        }
+
+        // the events are given to the front view in its coordinates
+        assertEquals(Collections.singletonList(new Point(50, 60)), clicks);
+        assertEquals(Collections.singletonList(new Point(150, 20)), moves);
+    }
+
+    @Test
+    public void testSettingsChanged_cacheCleared() {
+        // the scene observes the settings for all views
+        new PuzzleScene();
+        PuzzlepieceImageCache cache = PuzzlepieceImageCache.getInstance();
+
+        cache.getImage(puzzle.getPuzzlepieceGroups().get(0).getPuzzlepieces().get(0), 50, 40);
+        SettingsController.getInstance().setUseRandomConnectorShape(!SettingsController.getInstance().getUseRandomConnectorShape());
+
+        assertEquals(0, cache.getImageCount());
+    }
+
+}
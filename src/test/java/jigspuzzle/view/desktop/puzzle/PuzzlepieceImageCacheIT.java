@@ -0,0 +1,133 @@
+package jigspuzzle.view.desktop.puzzle;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jigspuzzle.JigSPuzzle;
+import jigspuzzle.controller.SettingsController;
+import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.model.puzzle.Puzzlepiece;
+import jigspuzzle.model.puzzle.PuzzlepieceGroup;
+import jigspuzzle.testutils.factories.FactorySlave;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PuzzlepieceImageCacheIT {
+
+    public PuzzlepieceImageCacheIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+        // reset all controllers
+        JigSPuzzle.getInstance().resetInstances();
+    }
+
+    @Test
+    public void testGetImage() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        Puzzlepiece piece = puzzle.getPuzzlepieceGroups().get(0).getPuzzlepieces().get(0);
+        PuzzlepieceImageCache instance = new PuzzlepieceImageCache();
+
+        BufferedImage result = instance.getImage(piece, 50, 40);
+        assertEquals(50, result.getWidth());
+        assertEquals(40, result.getHeight());
+        assertSame(result, instance.getImage(piece, 50, 40));
+        assertNotSame(result, instance.getImage(piece, 60, 40));
+        assertEquals(2, instance.getImageCount());
+    }
+
+    @Test
+    public void testGetImage_leastRecentlyUsedRemoved() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        List<PuzzlepieceGroup> groups = puzzle.getPuzzlepieceGroups();
+        Puzzlepiece piece1 = groups.get(0).getPuzzlepieces().get(0);
+        Puzzlepiece piece2 = groups.get(1).getPuzzlepieces().get(0);
+        Puzzlepiece piece3 = groups.get(2).getPuzzlepieces().get(0);
+        PuzzlepieceImageCache instance = new PuzzlepieceImageCache();
+
+        // two images of 300 x 300 pixels fit into one megabyte
+        SettingsController.getInstance().setPuzzlepieceImageCacheSize(1);
+        BufferedImage image1 = instance.getImage(piece1, 300, 300);
+        BufferedImage image2 = instance.getImage(piece2, 300, 300);
+        instance.getImage(piece1, 300, 300);
+        instance.getImage(piece3, 300, 300);
+
+        assertEquals(2, instance.getImageCount());
+        assertTrue(instance.getUsedMemory() <= 1024 * 1024);
+        assertSame(image1, instance.getImage(piece1, 300, 300));
+        assertNotSame(image2, instance.getImage(piece2, 300, 300));
+    }
+
+    @Test
+    public void testGetSprite() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        Puzzlepiece piece = puzzle.getPuzzlepieceGroups().get(0).getPuzzlepieces().get(0);
+        PuzzlepieceImageCache instance = new PuzzlepieceImageCache();
+        AtomicInteger renderCount = new AtomicInteger();
+
+        BufferedImage result = instance.getSprite(piece, 50, 40, (Puzzlepiece p) -> {
+            renderCount.incrementAndGet();
+            return new BufferedImage(100, 80, BufferedImage.TYPE_INT_ARGB);
+        });
+        BufferedImage result2 = instance.getSprite(piece, 50, 40, (Puzzlepiece p) -> {
+            renderCount.incrementAndGet();
+            return new BufferedImage(100, 80, BufferedImage.TYPE_INT_ARGB);
+        });
+
+        assertSame(result, result2);
+        assertEquals(1, renderCount.get());
+        assertNotSame(result, instance.getImage(piece, 50, 40));
+    }
+
+    @Test
+    public void testRemove() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        Puzzlepiece piece = puzzle.getPuzzlepieceGroups().get(0).getPuzzlepieces().get(0);
+        PuzzlepieceImageCache instance = new PuzzlepieceImageCache();
+
+        BufferedImage image = instance.getImage(piece, 50, 40);
+        instance.remove(Collections.singletonList(piece));
+
+        assertEquals(0, instance.getImageCount());
+        assertEquals(0, instance.getUsedMemory());
+        assertNotSame(image, instance.getImage(piece, 50, 40));
+    }
+
+    @Test
+    public void testRemove_afterLeastRecentlyUsedRemoved() throws ClassNotFoundException {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        Puzzlepiece piece1 = puzzle.getPuzzlepieceGroups().get(0).getPuzzlepieces().get(0);
+        Puzzlepiece piece2 = puzzle.getPuzzlepieceGroups().get(1).getPuzzlepieces().get(0);
+        PuzzlepieceImageCache instance = new PuzzlepieceImageCache();
+
+        // the image of the first piece is removed for the sprite of the second piece
+        SettingsController.getInstance().setPuzzlepieceImageCacheSize(1);
+        instance.getImage(piece1, 400, 400);
+        instance.getImage(piece2, 400, 400);
+        instance.getSprite(piece2, 200, 200, (Puzzlepiece p) -> new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB));
+        instance.remove(Arrays.asList(piece1, piece2));
+
+        assertEquals(0, instance.getImageCount());
+        assertEquals(0, instance.getUsedMemory());
+    }
+
+}
@@ -1,14 +1,23 @@
 package jigspuzzle.view.desktop.puzzle;
 
+import java.awt.EventQueue;
 import java.awt.Shape;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.util.ArrayList;
+import java.util.List;
 import jigspuzzle.JigSPuzzle;
 import jigspuzzle.controller.PuzzleController;
 import jigspuzzle.controller.SettingsController;
+import jigspuzzle.model.ModelThread;
 import jigspuzzle.model.puzzle.ConnectorPosition;
 import jigspuzzle.model.puzzle.ConnectorShapeFactory;
 import jigspuzzle.model.puzzle.Puzzle;
 import jigspuzzle.model.puzzle.Puzzlepiece;
+import jigspuzzle.model.puzzle.PuzzlepieceGroup;
 import jigspuzzle.testutils.factories.FactorySlave;
+import jigspuzzle.testutils.mockups.DummyPuzzleWindow;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -75,4 +84,61 @@ public class PuzzlepieceViewIT {
         }
     }
 
+    @Test
+    public void testMouseDragged_oncePerFrame() throws Exception {
+        Puzzle puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzlepieceGroup group = puzzle.getPuzzlepieceGroups().get(0);
+        JigSPuzzle.getInstance().setPuzzleWindow(new DummyPuzzleWindow());
+        PuzzleController.getInstance().setPuzzle(puzzle);
+        int startX = group.getX();
+        List<Integer> positions = new ArrayList<>();
+        PuzzlepieceView[] instance = new PuzzlepieceView[1];
+
+        // several drags in one frame move the group only once
+        EventQueue.invokeAndWait(() -> {
+            instance[0] = new PuzzlepieceView(new Puzzlearea(), group);
+            MouseListener listener = instance[0].getMouseListeners()[0];
+            MouseMotionListener motionListener = instance[0].getMouseMotionListeners()[0];
+
+            listener.mousePressed(createMouseEvent(instance[0], MouseEvent.MOUSE_PRESSED, 10));
+            motionListener.mouseDragged(createMouseEvent(instance[0], MouseEvent.MOUSE_DRAGGED, 20));
+            positions.add(group.getX());
+            motionListener.mouseDragged(createMouseEvent(instance[0], MouseEvent.MOUSE_DRAGGED, 30));
+            motionListener.mouseDragged(createMouseEvent(instance[0], MouseEvent.MOUSE_DRAGGED, 40));
+            positions.add(group.getX());
+        });
+
+        // the last drag is applied in the next frame
+        Thread.sleep(10 * ModelThread.FRAME_DELAY);
+        EventQueue.invokeAndWait(() -> {
+            positions.add(group.getX());
+
+            // a drag, that is not applied yet, is applied, when the mouse is released
+            MouseListener listener = instance[0].getMouseListeners()[0];
+            MouseMotionListener motionListener = instance[0].getMouseMotionListeners()[0];
+
+            listener.mouseReleased(createMouseEvent(instance[0], MouseEvent.MOUSE_RELEASED, 40));
+            listener.mousePressed(createMouseEvent(instance[0], MouseEvent.MOUSE_PRESSED, 10));
+            motionListener.mouseDragged(createMouseEvent(instance[0], MouseEvent.MOUSE_DRAGGED, 20));
+            positions.add(group.getX());
+            motionListener.mouseDragged(createMouseEvent(instance[0], MouseEvent.MOUSE_DRAGGED, 30));
+            positions.add(group.getX());
+            listener.mouseReleased(createMouseEvent(instance[0], MouseEvent.MOUSE_RELEASED, 30));
+            positions.add(group.getX());
+        });
+
+        assertEquals(startX + 10, (int) positions.get(0));
+        assertEquals(startX + 10, (int) positions.get(1));
+        assertEquals(startX + 30, (int) positions.get(2));
+        assertEquals((int) positions.get(3), (int) positions.get(4));
+        assertEquals(positions.get(3) + 10, (int) positions.get(5));
+    }
+
+    /**
+     * Creates an event of the left mouse button at the given x-coordinate.
+     */
+    private MouseEvent createMouseEvent(PuzzlepieceView view, int id, int x) {
+        return new MouseEvent(view, id, 0, MouseEvent.BUTTON1_DOWN_MASK, x, 10, 1, false, MouseEvent.BUTTON1);
+    }
+
 }
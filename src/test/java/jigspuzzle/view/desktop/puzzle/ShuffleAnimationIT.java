@@ -0,0 +1,111 @@
+package jigspuzzle.view.desktop.puzzle;
+
+import java.awt.EventQueue;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import jigspuzzle.JigSPuzzle;
+import jigspuzzle.controller.PuzzleController;
+import jigspuzzle.model.puzzle.Puzzle;
+import jigspuzzle.testutils.factories.FactorySlave;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ShuffleAnimationIT {
+
+    private Puzzle puzzle;
+
+    public ShuffleAnimationIT() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        puzzle = (Puzzle) FactorySlave.build(Puzzle.class).create();
+        PuzzleController.getInstance().setPuzzle(puzzle);
+    }
+
+    @After
+    public void tearDown() {
+        // reset all controllers
+        JigSPuzzle.getInstance().resetInstances();
+    }
+
+    @Test
+    public void testEase() {
+        assertEquals(0, ShuffleAnimation.ease(0), 0.0001);
+        assertEquals(0.5, ShuffleAnimation.ease(0.5), 0.0001);
+        assertEquals(1, ShuffleAnimation.ease(1), 0.0001);
+
+        // slow at the start and the end, fast in the middle
+        assertTrue(ShuffleAnimation.ease(0.1) < 0.1);
+        assertTrue(ShuffleAnimation.ease(0.9) > 0.9);
+        assertTrue(ShuffleAnimation.ease(0.55) - ShuffleAnimation.ease(0.45) > 0.1);
+    }
+
+    @Test
+    public void testNextFrame() throws Exception {
+        List<PuzzlepieceView> movedViews = new ArrayList<>();
+        List<Point> locations = new ArrayList<>();
+
+        // the timer of the animation runs on the event dispatch thread as well
+        EventQueue.invokeAndWait(() -> {
+            ShuffleAnimation instance = new ShuffleAnimation(movedViews::add);
+            PuzzlepieceView view = new PuzzlepieceView(null, puzzle.getPuzzlepieceGroups().get(0));
+
+            view.setLocation(100, 200);
+            instance.add(view, new Point(0, 0));
+            locations.add(view.getLocation());
+
+            instance.start(1000, 0);
+            instance.nextFrame(500);
+            locations.add(view.getLocation());
+            instance.nextFrame(1000);
+            locations.add(view.getLocation());
+            instance.clear();
+        });
+
+        assertEquals(new Point(0, 0), locations.get(0));
+        assertEquals(new Point(50, 100), locations.get(1));
+        assertEquals(new Point(100, 200), locations.get(2));
+        assertEquals(3, movedViews.size());
+    }
+
+    @Test
+    public void testStart_whileRunning() throws Exception {
+        List<Point> locations = new ArrayList<>();
+
+        EventQueue.invokeAndWait(() -> {
+            ShuffleAnimation instance = new ShuffleAnimation((PuzzlepieceView v) -> {
+            });
+            PuzzlepieceView view = new PuzzlepieceView(null, puzzle.getPuzzlepieceGroups().get(0));
+
+            view.setLocation(100, 200);
+            instance.add(view, new Point(0, 0));
+            instance.start(1000, 0);
+            instance.nextFrame(500);
+
+            // the view is moved on from where it is now
+            instance.start(1000, 500);
+            locations.add(view.getLocation());
+            instance.nextFrame(1000);
+            locations.add(view.getLocation());
+            instance.clear();
+        });
+
+        assertEquals(new Point(50, 100), locations.get(0));
+        assertEquals(new Point(75, 150), locations.get(1));
+    }
+
+}